@@ -3,23 +3,45 @@ package io.github.booster.commons.circuit.breaker;
 import arrow.core.Option;
 import io.github.booster.commons.metrics.MetricsRegistry;
 import io.github.booster.commons.pool.NamedObjectPool;
+import io.github.booster.commons.pool.NamedObjectPoolSetting;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Circuit breaker config objects that can be created as a Spring bean.
  * This object also caches circuit breakers created and returns cached value
  * if name is the same to avoid creating duplicate circuit breakers.
+ * All circuit breakers live in one {@link CircuitBreakerRegistry}, whose
+ * metrics are bound once when a {@link MetricsRegistry} is set, and equal
+ * settings share one resilience4j configuration.
  */
 public class CircuitBreakerConfig extends NamedObjectPool<Option<CircuitBreaker>> {
 
     private static Logger LOG = LoggerFactory.getLogger(CircuitBreakerConfig.class);
 
-    private Map<String, CircuitBreakerSetting> circuitBreakerSettings;
+    private final AtomicReference<Map<String, CircuitBreakerSetting>> circuitBreakerSettings = new AtomicReference<>();
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+
+    private final ConcurrentMap<CircuitBreakerSetting, io.github.resilience4j.circuitbreaker.CircuitBreakerConfig> configs =
+            new ConcurrentHashMap<>();
+
+    private final AtomicBoolean metricsBound = new AtomicBoolean();
 
     private MetricsRegistry registry;
 
@@ -35,28 +57,145 @@ public class CircuitBreakerConfig extends NamedObjectPool<Option<CircuitBreaker>
      * @param settings {@link CircuitBreakerSetting} identified by name.
      */
     public CircuitBreakerConfig(Map<String, CircuitBreakerSetting> settings) {
+        this(settings, null);
+    }
+
+    /**
+     * Constructor with default settings and pool bounds.
+     * @param settings {@link CircuitBreakerSetting} identified by name.
+     * @param poolSetting {@link NamedObjectPoolSetting} bounding cached circuit breakers, unbounded if null.
+     */
+    public CircuitBreakerConfig(Map<String, CircuitBreakerSetting> settings, NamedObjectPoolSetting poolSetting) {
+        super(poolSetting);
         this.setCircuitBreakerSettings(settings);
     }
 
     /**
-     * Setter method for use as Spring configuration properties.
+     * Setter method for use as Spring configuration properties. Settings are replaced
+     * with an immutable copy, changing a setting afterwards has no effect until settings
+     * are set again. Cached circuit breakers whose setting changed are rebuilt
+     * keeping their state, lookups keep returning previous circuit breakers until
+     * they are replaced.
      * @param circuitBreakerSettings map of {@link CircuitBreakerSetting}, key is the name for each setting.
      */
     public void setCircuitBreakerSettings(Map<String, CircuitBreakerSetting> circuitBreakerSettings) {
-        this.circuitBreakerSettings = circuitBreakerSettings == null ? new HashMap<>() : circuitBreakerSettings;
+        Map<String, CircuitBreakerSetting> copies = new HashMap<>();
+        if (circuitBreakerSettings != null) {
+            // copies keep config cache keys and reload comparisons stable when callers mutate settings.
+            circuitBreakerSettings.forEach((name, setting) -> copies.put(name, setting == null ? null : setting.copy()));
+        }
+        Map<String, CircuitBreakerSetting> current = Collections.unmodifiableMap(copies);
+        Map<String, CircuitBreakerSetting> previous = this.circuitBreakerSettings.getAndSet(current);
+        this.configs.clear();
+        this.reload(previous, current);
     }
 
+    /**
+     * Binds circuit breaker metrics to the first {@link MeterRegistry} set,
+     * covering circuit breakers created before and after.
+     * @param registry {@link MetricsRegistry} to record metrics.
+     */
+    @Override
     public void setMetricsRegistry(MetricsRegistry registry) {
         this.registry = registry == null ?
                 new MetricsRegistry() :
                 registry;
+        MeterRegistry meterRegistry = this.registry.getRegistry().orNull();
+        if (meterRegistry != null && this.metricsBound.compareAndSet(false, true)) {
+            TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(this.circuitBreakerRegistry).bindTo(meterRegistry);
+        }
+        super.setMetricsRegistry(registry);
+    }
+
+    /**
+     * Registry holding all circuit breakers created by this config.
+     * @return {@link CircuitBreakerRegistry}
+     */
+    public CircuitBreakerRegistry getCircuitBreakerRegistry() {
+        return this.circuitBreakerRegistry;
+    }
+
+    /**
+     * Creates all configured circuit breakers in parallel, so first calls after startup
+     * do not pay for creation and meter binding. Join the returned future
+     * to hold readiness until warm-up is done.
+     * @return future completed with warm-up duration.
+     */
+    public CompletableFuture<Duration> warmUp() {
+        return this.warmUp(new ArrayList<>(this.circuitBreakerSettings.get().keySet()));
+    }
+
+    /**
+     * Removes evicted circuit breakers from the registry, which also removes their meters.
+     * @param name name of the evicted circuit breaker.
+     * @param obj evicted circuit breaker.
+     */
+    @Override
+    protected void onEviction(String name, Option<CircuitBreaker> obj) {
+        this.circuitBreakerRegistry.remove(name);
+    }
+
+    /**
+     * Replaces a circuit breaker whose setting changed in the registry. The
+     * new circuit breaker is moved to the state of the previous one, recorded
+     * calls cannot be carried over. Meters are moved to the new circuit breaker.
+     * @param name name of the circuit breaker.
+     * @param previous circuit breaker being replaced.
+     * @return new circuit breaker.
+     */
+    @Override
+    protected Option<CircuitBreaker> recreateObject(String name, Option<CircuitBreaker> previous) {
+        io.github.resilience4j.circuitbreaker.CircuitBreakerConfig config = this.findConfig(name);
+        if (config == null) {
+            this.circuitBreakerRegistry.remove(name);
+            return Option.fromNullable(null);
+        }
+        CircuitBreaker breaker = CircuitBreaker.of(name, config);
+        CircuitBreaker previousBreaker = previous.orNull();
+        if (previousBreaker != null) {
+            transitionToState(breaker, previousBreaker.getState());
+        }
+        return Option.fromNullable(
+                this.circuitBreakerRegistry.replace(name, breaker).isPresent() ?
+                        breaker :
+                        this.circuitBreakerRegistry.circuitBreaker(name, config)
+        );
+    }
+
+    private static void transitionToState(CircuitBreaker breaker, CircuitBreaker.State state) {
+        switch (state) {
+            case OPEN:
+                breaker.transitionToOpenState();
+                break;
+            case HALF_OPEN:
+                breaker.transitionToOpenState();
+                breaker.transitionToHalfOpenState();
+                break;
+            case FORCED_OPEN:
+                breaker.transitionToForcedOpenState();
+                break;
+            case DISABLED:
+                breaker.transitionToDisabledState();
+                break;
+            case METRICS_ONLY:
+                breaker.transitionToMetricsOnlyState();
+                break;
+            default:
+                break;
+        }
     }
 
     @Override
     protected Option<CircuitBreaker> createObject(String name) {
-        return this.circuitBreakerSettings.containsKey(name) ?
-                this.circuitBreakerSettings.get(name).buildCircuitBreaker(name, this.registry) :
-                Option.fromNullable(null);
+        io.github.resilience4j.circuitbreaker.CircuitBreakerConfig config = this.findConfig(name);
+        return Option.fromNullable(config == null ? null : this.circuitBreakerRegistry.circuitBreaker(name, config));
+    }
+
+    private io.github.resilience4j.circuitbreaker.CircuitBreakerConfig findConfig(String name) {
+        CircuitBreakerSetting setting = this.circuitBreakerSettings.get().get(name);
+        return setting == null ?
+                null :
+                this.configs.computeIfAbsent(setting, CircuitBreakerSetting::buildCircuitBreakerConfig);
     }
 
     @Override
@@ -7,6 +7,7 @@ import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import io.github.booster.commons.metrics.MetricsRegistry;
 import org.apache.commons.lang3.StringUtils;
@@ -17,6 +18,7 @@ import java.time.Duration;
  * Per circuit breaker setting.
  */
 @ToString
+@EqualsAndHashCode
 public class CircuitBreakerSetting {
 
     /**
@@ -264,29 +266,37 @@ public class CircuitBreakerSetting {
     }
 
     /**
-     * Builds a resilience4j circuit breaker without reporting metrics.
-     * @param name name of the circuit breaker.
-     * @return an optional {@link CircuitBreaker}
+     * Copies this setting, so later changes through setters do not affect the copy.
+     * @return copy of this setting.
      */
-    public Option<CircuitBreaker> buildCircuitBreaker(String name) {
-        return this.buildCircuitBreaker(name, new MetricsRegistry(null));
+    CircuitBreakerSetting copy() {
+        CircuitBreakerSetting copy = new CircuitBreakerSetting();
+        copy.failureRateThreshold = this.failureRateThreshold;
+        copy.slowCallRateThreshold = this.slowCallRateThreshold;
+        copy.slowCallDurationThreshold = this.slowCallDurationThreshold;
+        copy.permittedNumberOfCallsInHalfOpenState = this.permittedNumberOfCallsInHalfOpenState;
+        copy.maxWaitDurationInHalfOpenState = this.maxWaitDurationInHalfOpenState;
+        copy.slidingWindowType = this.slidingWindowType;
+        copy.slidingWindowSize = this.slidingWindowSize;
+        copy.minimumNumberOfCalls = this.minimumNumberOfCalls;
+        copy.waitDurationInOpenState = this.waitDurationInOpenState;
+        copy.automaticTransitionFromOpenToHalfOpenEnabled = this.automaticTransitionFromOpenToHalfOpenEnabled;
+        return copy;
     }
 
     /**
-     * Builds a resilience4j circuit breaker with metrics reported.
-     * @param name name of the circuit breaker.
-     * @param metricsRegistry {@link MetricsRegistry}
-     * @return optional circuit breaker.
+     * Builds resilience4j circuit breaker configuration, to create
+     * circuit breakers in a shared {@link CircuitBreakerRegistry}.
+     * @return {@link CircuitBreakerConfig}
      */
-    public Option<CircuitBreaker> buildCircuitBreaker(String name, MetricsRegistry metricsRegistry) {
-        Preconditions.checkArgument(StringUtils.isNotEmpty(name), "name cannot be null");
+    public CircuitBreakerConfig buildCircuitBreakerConfig() {
         CircuitBreakerConfig.Builder builder = CircuitBreakerConfig.custom()
                 .failureRateThreshold(this.getFailureRateThreshold())
                 .slowCallRateThreshold(this.getSlowCallRateThreshold())
                 .slowCallDurationThreshold(Duration.ofMillis(this.getSlowCallDurationThreshold()))
                 .permittedNumberOfCallsInHalfOpenState(this.getPermittedNumberOfCallsInHalfOpenState())
                 .maxWaitDurationInHalfOpenState(Duration.ofMillis(this.getMaxWaitDurationInHalfOpenState()))
-                .slidingWindowType(this.slidingWindowType == SlidingWindowType.COUNT_BASED ?
+                .slidingWindowType(this.getSlidingWindowType() == SlidingWindowType.COUNT_BASED ?
                         CircuitBreakerConfig.SlidingWindowType.COUNT_BASED :
                         CircuitBreakerConfig.SlidingWindowType.TIME_BASED)
                 .slidingWindowSize(this.getSlidingWindowSize())
@@ -297,7 +307,27 @@ public class CircuitBreakerSetting {
             builder.enableAutomaticTransitionFromOpenToHalfOpen();
         }
 
-        CircuitBreakerConfig config = builder.build();
+        return builder.build();
+    }
+
+    /**
+     * Builds a resilience4j circuit breaker without reporting metrics.
+     * @param name name of the circuit breaker.
+     * @return an optional {@link CircuitBreaker}
+     */
+    public Option<CircuitBreaker> buildCircuitBreaker(String name) {
+        return this.buildCircuitBreaker(name, null);
+    }
+
+    /**
+     * Builds a resilience4j circuit breaker with metrics reported.
+     * @param name name of the circuit breaker.
+     * @param metricsRegistry {@link MetricsRegistry}
+     * @return optional circuit breaker.
+     */
+    public Option<CircuitBreaker> buildCircuitBreaker(String name, MetricsRegistry metricsRegistry) {
+        Preconditions.checkArgument(StringUtils.isNotEmpty(name), "name cannot be null");
+        CircuitBreakerConfig config = this.buildCircuitBreakerConfig();
         CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(config);
 
         if (metricsRegistry != null && metricsRegistry.getRegistry().isDefined()) {
@@ -0,0 +1,105 @@
+package io.github.booster.commons.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Takes meter resolution and recording off the calling thread. Callers
+ * publish {@link MetricRecord}s into a {@link MetricsRingBuffer} and a
+ * dedicated daemon thread applies them in batches.
+ */
+class AsyncMetricsRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncMetricsRecorder.class);
+
+    private static final int BATCH_SIZE = 256;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final MetricsRingBuffer<MetricRecord> buffer;
+
+    private final MetricsRegistry.OverflowPolicy overflowPolicy;
+
+    private final Counter droppedCounter;
+
+    private final Consumer<MetricRecord> applier;
+
+    private final Thread consumer;
+
+    private volatile boolean running = true;
+
+    AsyncMetricsRecorder(
+            int capacity,
+            MetricsRegistry.OverflowPolicy overflowPolicy,
+            Counter droppedCounter,
+            Consumer<MetricRecord> applier
+    ) {
+        this.buffer = new MetricsRingBuffer<>(capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.droppedCounter = droppedCounter;
+        this.applier = applier;
+        this.consumer = new Thread(() -> this.consume(applier), "booster-metrics-recorder");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * Publishes a record.
+     * @param record record to publish.
+     * @return true if the record was published or dropped, false if the
+     *         caller should record synchronously, including after close.
+     */
+    boolean publish(MetricRecord record) {
+        if (!this.running) {
+            return false;
+        }
+        if (this.buffer.offer(record)) {
+            return true;
+        }
+        if (this.overflowPolicy == MetricsRegistry.OverflowPolicy.DROP) {
+            this.droppedCounter.increment();
+            return true;
+        }
+        return false;
+    }
+
+    private void consume(Consumer<MetricRecord> applier) {
+        Consumer<MetricRecord> safeApplier = record -> {
+            try {
+                applier.accept(record);
+            } catch (RuntimeException e) {
+                log.warn("booster-commons - failed to record metric: [{}]", record.getName(), e);
+            }
+        };
+        while (this.running) {
+            if (this.buffer.drain(safeApplier, BATCH_SIZE) == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        while (this.buffer.drain(safeApplier, BATCH_SIZE) > 0) {
+            // apply records published before close.
+        }
+    }
+
+    /**
+     * Stops the consumer thread after applying all published records.
+     */
+    void close() {
+        this.running = false;
+        LockSupport.unpark(this.consumer);
+        try {
+            this.consumer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!this.consumer.isAlive()) {
+            // applies records published while the consumer was stopping.
+            this.consume(this.applier);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package io.github.booster.commons.metrics;
+
+/**
+ * Counter resolved once by {@link MetricsRegistry#counter(String, String...)}
+ * that can be held in a field and incremented without further lookups.
+ */
+public interface BoundCounter {
+
+    /**
+     * Counter that records nothing, returned when no
+     * {@link io.micrometer.core.instrument.MeterRegistry} is configured.
+     */
+    BoundCounter NOOP = new BoundCounter() {
+        @Override
+        public void increment() {
+        }
+
+        @Override
+        public void increment(double amount) {
+        }
+    };
+
+    /**
+     * Increase counter by 1
+     */
+    void increment();
+
+    /**
+     * Increase counter by specified amount.
+     * @param amount amount to increase
+     */
+    void increment(double amount);
+}
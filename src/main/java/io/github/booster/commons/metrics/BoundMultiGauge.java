@@ -0,0 +1,34 @@
+package io.github.booster.commons.metrics;
+
+import io.micrometer.core.instrument.Tags;
+
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Set of gauge rows sharing a name, created by
+ * {@link MetricsRegistry#multiGauge(String, String...)}, e.g. lag per partition.
+ */
+public interface BoundMultiGauge {
+
+    /**
+     * Multi-gauge that records nothing, returned when no
+     * {@link io.micrometer.core.instrument.MeterRegistry} is configured.
+     */
+    BoundMultiGauge NOOP = new BoundMultiGauge() {
+        @Override
+        public <T> void register(Iterable<T> items, Function<T, Tags> tags, ToDoubleFunction<T> value) {
+        }
+    };
+
+    /**
+     * Replaces all rows in one call. Values of rows that already exist are
+     * updated in place, only new rows are registered, and rows not present
+     * in items are removed.
+     * @param items items to create rows from.
+     * @param tags function providing tags unique to each row.
+     * @param value function providing value of each row.
+     * @param <T> type of items.
+     */
+    <T> void register(Iterable<T> items, Function<T, Tags> tags, ToDoubleFunction<T> value);
+}
@@ -0,0 +1,20 @@
+package io.github.booster.commons.metrics;
+
+/**
+ * Timer resolved once by {@link MetricsRegistry#timer(String, String...)}
+ * that can be held in a field and recorded without further lookups.
+ */
+public interface BoundTimer {
+
+    /**
+     * Timer that records nothing, returned when no
+     * {@link io.micrometer.core.instrument.MeterRegistry} is configured.
+     */
+    BoundTimer NOOP = nanos -> { };
+
+    /**
+     * Records a duration.
+     * @param nanos duration in nanoseconds.
+     */
+    void record(long nanos);
+}
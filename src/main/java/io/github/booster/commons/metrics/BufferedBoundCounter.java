@@ -0,0 +1,61 @@
+package io.github.booster.commons.metrics;
+
+import io.micrometer.core.instrument.Counter;
+
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * {@link BoundCounter} that accumulates increments in striped cells and
+ * pushes the accumulated delta to a Micrometer {@link Counter} on
+ * {@link #flush()}. Avoids cache line contention on very hot counters
+ * at the cost of reporting increments up to one flush interval late.
+ */
+class BufferedBoundCounter implements BoundCounter {
+
+    private final Counter counter;
+
+    private final DoubleAdder pending = new DoubleAdder();
+
+    private volatile boolean direct;
+
+    BufferedBoundCounter(Counter counter) {
+        this.counter = counter;
+    }
+
+    @Override
+    public void increment() {
+        this.increment(1.0);
+    }
+
+    @Override
+    public void increment(double amount) {
+        if (this.direct) {
+            this.counter.increment(amount);
+            return;
+        }
+        this.pending.add(amount);
+        if (this.direct) {
+            // switched while adding, the final flush may have missed it.
+            this.flush();
+        }
+    }
+
+    /**
+     * Pushes increments accumulated since last flush to the underlying counter.
+     */
+    void flush() {
+        double delta = this.pending.sumThenReset();
+        if (delta != 0.0) {
+            this.counter.increment(delta);
+        }
+    }
+
+    /**
+     * Pushes pending increments and records further increments directly,
+     * once nothing flushes this counter anymore.
+     */
+    void close() {
+        this.direct = true;
+        this.flush();
+    }
+}
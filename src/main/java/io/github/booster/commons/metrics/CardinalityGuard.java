@@ -0,0 +1,80 @@
+package io.github.booster.commons.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits number of distinct tag combinations per meter name. Only
+ * consulted when a new combination is about to be cached, so the cost
+ * on hot path is nil for combinations already seen.
+ */
+class CardinalityGuard {
+
+    private final int defaultLimit;
+
+    private final Map<String, Integer> limits;
+
+    private final ConcurrentHashMap<String, AtomicInteger> admitted = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor
+     * @param defaultLimit limit for names not in limits, unlimited if not positive.
+     * @param limits limits by meter name.
+     */
+    CardinalityGuard(int defaultLimit, Map<String, Integer> limits) {
+        this.defaultLimit = defaultLimit;
+        this.limits = limits == null ? Map.of() : Map.copyOf(limits);
+    }
+
+    private int limitOf(String name) {
+        Integer limit = this.limits.get(name);
+        return limit == null ? this.defaultLimit : limit;
+    }
+
+    /**
+     * Admits a new tag combination for a meter name if still under limit.
+     * @param name meter name.
+     * @return true if admitted.
+     */
+    boolean tryAdmit(String name) {
+        int limit = this.limitOf(name);
+        if (limit <= 0) {
+            return true;
+        }
+        AtomicInteger count = this.admitted.computeIfAbsent(name, key -> new AtomicInteger());
+        while (true) {
+            int current = count.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (count.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases an admission that did not end up creating a new combination.
+     * @param name meter name.
+     */
+    void release(String name) {
+        AtomicInteger count = this.admitted.get(name);
+        if (count != null) {
+            count.decrementAndGet();
+        }
+    }
+
+    /**
+     * Folds tags into overflow series by replacing all tag values.
+     * @param tags tags to fold.
+     * @return tags with the same keys and overflow values.
+     */
+    static String[] overflowTags(String... tags) {
+        String[] overflow = tags.clone();
+        for (int i = 1; i < overflow.length; i += 2) {
+            overflow[i] = MetricsRegistry.OVERFLOW_TAG_VALUE;
+        }
+        return overflow;
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.booster.commons.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically flushes {@link BufferedBoundCounter}s held in a {@link MeterCache}
+ * using a single daemon thread.
+ */
+class CounterFlusher {
+
+    private static final Logger log = LoggerFactory.getLogger(CounterFlusher.class);
+
+    private final MeterCache<BoundCounter> counters;
+
+    private final ScheduledExecutorService scheduler;
+
+    CounterFlusher(MeterCache<BoundCounter> counters, Duration interval) {
+        this.counters = counters;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "booster-metrics-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalNanos = interval.toNanos();
+        this.scheduler.scheduleAtFixedRate(this::flush, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Flushes all buffered counters.
+     */
+    void flush() {
+        try {
+            for (BoundCounter counter : this.counters.values()) {
+                if (counter instanceof BufferedBoundCounter) {
+                    ((BufferedBoundCounter) counter).flush();
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("booster-commons - failed to flush buffered counters", e);
+        }
+    }
+
+    /**
+     * Stops periodic flushing after a final flush, buffered counters
+     * record directly afterwards.
+     */
+    void close() {
+        this.scheduler.shutdown();
+        for (BoundCounter counter : this.counters.values()) {
+            if (counter instanceof BufferedBoundCounter) {
+                ((BufferedBoundCounter) counter).close();
+            }
+        }
+    }
+}
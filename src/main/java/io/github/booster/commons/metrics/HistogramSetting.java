@@ -0,0 +1,162 @@
+package io.github.booster.commons.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Latency distribution setting applied to timers created by {@link MetricsRegistry}.
+ * Percentiles are computed by Micrometer from HdrHistogram based ring buffers,
+ * whose memory is bounded by percentile precision and buffer length, both of
+ * which are capped here so that each timer stays small.
+ */
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class HistogramSetting {
+
+    /**
+     * Default number of significant decimal digits for percentiles.
+     */
+    public static final int DEFAULT_PERCENTILE_PRECISION = 1;
+
+    /**
+     * Maximum number of significant decimal digits for percentiles.
+     */
+    public static final int MAX_PERCENTILE_PRECISION = 3;
+
+    /**
+     * Default time after which samples are dropped from percentiles, in milliseconds.
+     */
+    public static final int DEFAULT_EXPIRY_MILLIS = 120000;
+
+    /**
+     * Default number of rotating histograms kept within expiry window.
+     */
+    public static final int DEFAULT_BUFFER_LENGTH = 3;
+
+    /**
+     * Maximum number of rotating histograms kept within expiry window.
+     */
+    public static final int MAX_BUFFER_LENGTH = 5;
+
+    private List<Long> serviceLevelObjectivesMillis;
+
+    private List<Double> percentiles;
+
+    private int percentilePrecision;
+
+    private int expiryMillis;
+
+    private int bufferLength;
+
+    private boolean percentileHistogram;
+
+    /**
+     * Service level objective boundaries in milliseconds, each one is published
+     * as a histogram bucket.
+     * @return SLO boundaries, empty if not specified.
+     */
+    public List<Long> getServiceLevelObjectivesMillis() {
+        return this.serviceLevelObjectivesMillis == null ? List.of() : this.serviceLevelObjectivesMillis;
+    }
+
+    public void setServiceLevelObjectivesMillis(List<Long> serviceLevelObjectivesMillis) {
+        this.serviceLevelObjectivesMillis = serviceLevelObjectivesMillis;
+    }
+
+    /**
+     * Percentiles to publish, between 0 and 1, e.g. 0.99 and 0.999.
+     * @return percentiles, empty if not specified.
+     */
+    public List<Double> getPercentiles() {
+        return this.percentiles == null ? List.of() : this.percentiles;
+    }
+
+    public void setPercentiles(List<Double> percentiles) {
+        this.percentiles = percentiles;
+    }
+
+    /**
+     * Number of significant decimal digits percentiles are computed to.
+     * @return percentile precision, between 0 and {@link #MAX_PERCENTILE_PRECISION}
+     */
+    public int getPercentilePrecision() {
+        return this.percentilePrecision <= 0 ?
+                DEFAULT_PERCENTILE_PRECISION : Math.min(this.percentilePrecision, MAX_PERCENTILE_PRECISION);
+    }
+
+    public void setPercentilePrecision(int percentilePrecision) {
+        this.percentilePrecision = percentilePrecision;
+    }
+
+    /**
+     * Time window after which samples are dropped from percentiles.
+     * @return expiry in milliseconds.
+     */
+    public int getExpiryMillis() {
+        return this.expiryMillis <= 0 ? DEFAULT_EXPIRY_MILLIS : this.expiryMillis;
+    }
+
+    public void setExpiryMillis(int expiryMillis) {
+        this.expiryMillis = expiryMillis;
+    }
+
+    /**
+     * Number of histograms rotated within expiry window.
+     * @return buffer length, between 1 and {@link #MAX_BUFFER_LENGTH}
+     */
+    public int getBufferLength() {
+        return this.bufferLength <= 0 ?
+                DEFAULT_BUFFER_LENGTH : Math.min(this.bufferLength, MAX_BUFFER_LENGTH);
+    }
+
+    public void setBufferLength(int bufferLength) {
+        this.bufferLength = bufferLength;
+    }
+
+    /**
+     * Whether to publish Micrometer's predefined percentile histogram buckets
+     * in addition to SLO buckets, for percentile aggregation across instances.
+     * @return true to publish percentile histogram.
+     */
+    public boolean isPercentileHistogram() {
+        return this.percentileHistogram;
+    }
+
+    public void setPercentileHistogram(boolean percentileHistogram) {
+        this.percentileHistogram = percentileHistogram;
+    }
+
+    /**
+     * Applies distribution setting to a timer builder.
+     * @param builder timer builder.
+     * @return the same builder.
+     */
+    Timer.Builder configure(Timer.Builder builder) {
+        builder.serviceLevelObjectives(this.getServiceLevelObjectivesMillis().stream()
+                        .filter(Objects::nonNull)
+                        .filter(slo -> slo > 0)
+                        .map(Duration::ofMillis)
+                        .toArray(Duration[]::new))
+                .publishPercentiles(this.getPercentiles().stream()
+                        .filter(Objects::nonNull)
+                        .filter(percentile -> percentile >= 0 && percentile <= 1)
+                        .mapToDouble(Double::doubleValue)
+                        .toArray())
+                .percentilePrecision(this.getPercentilePrecision())
+                .distributionStatisticExpiry(Duration.ofMillis(this.getExpiryMillis()))
+                .distributionStatisticBufferLength(this.getBufferLength());
+        if (this.isPercentileHistogram()) {
+            builder.publishPercentileHistogram();
+        }
+        return builder;
+    }
+}
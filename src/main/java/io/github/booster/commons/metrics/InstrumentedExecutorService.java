@@ -0,0 +1,280 @@
+package io.github.booster.commons.metrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link ExecutorService} wrapper that records how long tasks wait before
+ * running and how long they run, counts rejected tasks, and reports the
+ * number of running tasks. Works with any executor, including
+ * {@link java.util.concurrent.ForkJoinPool} and virtual thread per task
+ * executors. Per task overhead is a wrapper object, three clock reads and
+ * updates of pre-bound meters.
+ */
+class InstrumentedExecutorService implements ExecutorService {
+
+    /**
+     * Timer of task execution, same as Micrometer's executor metrics.
+     */
+    static final String EXECUTION = "executor";
+
+    /**
+     * Timer of time tasks wait before running, same as Micrometer's executor metrics.
+     */
+    static final String IDLE = "executor.idle";
+
+    /**
+     * Counter of rejected tasks.
+     */
+    static final String REJECTED = "executor.rejected";
+
+    /**
+     * Gauge of tasks running.
+     */
+    static final String RUNNING = "executor.tasks.running";
+
+    /**
+     * Due time of tasks whose waiting time is not recorded.
+     */
+    static final long NOT_WAITING = Long.MIN_VALUE;
+
+    private final ExecutorService delegate;
+
+    protected final MetricsRegistry registry;
+
+    private final BoundTimer executionTimer;
+
+    private final BoundTimer idleTimer;
+
+    private final BoundCounter rejectedCounter;
+
+    private final LongAdder running = new LongAdder();
+
+    InstrumentedExecutorService(ExecutorService delegate, MetricsRegistry registry, String name) {
+        this.delegate = delegate;
+        this.registry = registry;
+        this.executionTimer = registry.timer(EXECUTION, "name", name);
+        this.idleTimer = registry.timer(IDLE, "name", name);
+        this.rejectedCounter = registry.counter(REJECTED, "name", name);
+    }
+
+    /**
+     * Number of tasks currently running, reported as {@link #RUNNING} by {@link MetricsRegistry}.
+     * @return running tasks.
+     */
+    double getRunningTasks() {
+        return this.running.doubleValue();
+    }
+
+    private final class InstrumentedRunnable implements Runnable {
+
+        private final Runnable task;
+
+        private final long dueNanos;
+
+        private InstrumentedRunnable(Runnable task, long dueNanos) {
+            this.task = task;
+            this.dueNanos = dueNanos;
+        }
+
+        @Override
+        public void run() {
+            long startNanos = InstrumentedExecutorService.this.beforeRun(this.dueNanos);
+            try {
+                this.task.run();
+            } finally {
+                InstrumentedExecutorService.this.afterRun(startNanos);
+            }
+        }
+    }
+
+    private final class InstrumentedCallable<T> implements Callable<T> {
+
+        private final Callable<T> task;
+
+        private final long dueNanos;
+
+        private InstrumentedCallable(Callable<T> task, long dueNanos) {
+            this.task = task;
+            this.dueNanos = dueNanos;
+        }
+
+        @Override
+        public T call() throws Exception {
+            long startNanos = InstrumentedExecutorService.this.beforeRun(this.dueNanos);
+            try {
+                return this.task.call();
+            } finally {
+                InstrumentedExecutorService.this.afterRun(startNanos);
+            }
+        }
+    }
+
+    private long beforeRun(long dueNanos) {
+        long startNanos = this.registry.start();
+        if (dueNanos != NOT_WAITING) {
+            this.idleTimer.record(Math.max(startNanos - dueNanos, 0L));
+        }
+        this.running.increment();
+        return startNanos;
+    }
+
+    private void afterRun(long startNanos) {
+        this.running.decrement();
+        this.executionTimer.record(this.registry.start() - startNanos);
+    }
+
+    /**
+     * Wraps a task.
+     * @param task task to wrap.
+     * @param dueNanos time task is due to run, {@link #NOT_WAITING} to not record waiting time.
+     * @return instrumented task.
+     */
+    Runnable wrap(Runnable task, long dueNanos) {
+        return new InstrumentedRunnable(task, dueNanos);
+    }
+
+    /**
+     * Wraps a task.
+     * @param task task to wrap.
+     * @param dueNanos time task is due to run, {@link #NOT_WAITING} to not record waiting time.
+     * @param <T> type of task result.
+     * @return instrumented task.
+     */
+    <T> Callable<T> wrap(Callable<T> task, long dueNanos) {
+        return new InstrumentedCallable<>(task, dueNanos);
+    }
+
+    private <T> List<Callable<T>> wrapAll(Collection<? extends Callable<T>> tasks) {
+        long now = this.registry.start();
+        List<Callable<T>> wrapped = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            wrapped.add(this.wrap(task, now));
+        }
+        return wrapped;
+    }
+
+    /**
+     * Counts a rejected submission.
+     * @param e rejection.
+     * @return the same rejection to be rethrown.
+     */
+    RejectedExecutionException rejected(RejectedExecutionException e) {
+        this.rejectedCounter.increment();
+        return e;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        try {
+            this.delegate.execute(this.wrap(command, this.registry.start()));
+        } catch (RejectedExecutionException e) {
+            throw this.rejected(e);
+        }
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        try {
+            return this.delegate.submit(this.wrap(task, this.registry.start()));
+        } catch (RejectedExecutionException e) {
+            throw this.rejected(e);
+        }
+    }
+
+    @Override
+    public <T> Future<T> submit(Runnable task, T result) {
+        try {
+            return this.delegate.submit(this.wrap(task, this.registry.start()), result);
+        } catch (RejectedExecutionException e) {
+            throw this.rejected(e);
+        }
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        try {
+            return this.delegate.submit(this.wrap(task, this.registry.start()));
+        } catch (RejectedExecutionException e) {
+            throw this.rejected(e);
+        }
+    }
+
+    @Override
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+        try {
+            return this.delegate.invokeAll(this.wrapAll(tasks));
+        } catch (RejectedExecutionException e) {
+            throw this.rejected(e);
+        }
+    }
+
+    @Override
+    public <T> List<Future<T>> invokeAll(
+            Collection<? extends Callable<T>> tasks,
+            long timeout,
+            TimeUnit unit
+    ) throws InterruptedException {
+        try {
+            return this.delegate.invokeAll(this.wrapAll(tasks), timeout, unit);
+        } catch (RejectedExecutionException e) {
+            throw this.rejected(e);
+        }
+    }
+
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException {
+        try {
+            return this.delegate.invokeAny(this.wrapAll(tasks));
+        } catch (RejectedExecutionException e) {
+            throw this.rejected(e);
+        }
+    }
+
+    @Override
+    public <T> T invokeAny(
+            Collection<? extends Callable<T>> tasks,
+            long timeout,
+            TimeUnit unit
+    ) throws InterruptedException, ExecutionException, TimeoutException {
+        try {
+            return this.delegate.invokeAny(this.wrapAll(tasks), timeout, unit);
+        } catch (RejectedExecutionException e) {
+            throw this.rejected(e);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        this.delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return this.delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return this.delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return this.delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return this.delegate.awaitTermination(timeout, unit);
+    }
+}
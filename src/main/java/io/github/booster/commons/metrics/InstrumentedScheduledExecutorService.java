@@ -0,0 +1,90 @@
+package io.github.booster.commons.metrics;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link InstrumentedExecutorService} for {@link ScheduledExecutorService}.
+ * Waiting time of delayed tasks is measured from when they are due, waiting
+ * time of periodic tasks is not recorded.
+ */
+class InstrumentedScheduledExecutorService extends InstrumentedExecutorService implements ScheduledExecutorService {
+
+    /**
+     * Counter of tasks scheduled once, same as Micrometer's executor metrics.
+     */
+    static final String SCHEDULED_ONCE = "executor.scheduled.once";
+
+    /**
+     * Counter of tasks scheduled repetitively, same as Micrometer's executor metrics.
+     */
+    static final String SCHEDULED_REPETITIVELY = "executor.scheduled.repetitively";
+
+    /**
+     * Longest delay whose due time is recorded, so that due and start times
+     * stay within the range {@link System#nanoTime()} differences can cover.
+     */
+    private static final long MAX_RECORDED_DELAY_NANOS = Long.MAX_VALUE / 2;
+
+    private final ScheduledExecutorService delegate;
+
+    private final BoundCounter scheduledOnce;
+
+    private final BoundCounter scheduledRepetitively;
+
+    InstrumentedScheduledExecutorService(ScheduledExecutorService delegate, MetricsRegistry registry, String name) {
+        super(delegate, registry, name);
+        this.delegate = delegate;
+        this.scheduledOnce = registry.counter(SCHEDULED_ONCE, "name", name);
+        this.scheduledRepetitively = registry.counter(SCHEDULED_REPETITIVELY, "name", name);
+    }
+
+    private long dueNanos(long delay, TimeUnit unit) {
+        // toNanos saturates, larger delays would overflow when added to the start time.
+        long delayNanos = Math.max(unit.toNanos(delay), 0L);
+        return delayNanos > MAX_RECORDED_DELAY_NANOS ? NOT_WAITING : this.registry.start() + delayNanos;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        this.scheduledOnce.increment();
+        try {
+            return this.delegate.schedule(this.wrap(command, this.dueNanos(delay, unit)), delay, unit);
+        } catch (RejectedExecutionException e) {
+            throw this.rejected(e);
+        }
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        this.scheduledOnce.increment();
+        try {
+            return this.delegate.schedule(this.wrap(callable, this.dueNanos(delay, unit)), delay, unit);
+        } catch (RejectedExecutionException e) {
+            throw this.rejected(e);
+        }
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        this.scheduledRepetitively.increment();
+        try {
+            return this.delegate.scheduleAtFixedRate(this.wrap(command, NOT_WAITING), initialDelay, period, unit);
+        } catch (RejectedExecutionException e) {
+            throw this.rejected(e);
+        }
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        this.scheduledRepetitively.increment();
+        try {
+            return this.delegate.scheduleWithFixedDelay(this.wrap(command, NOT_WAITING), initialDelay, delay, unit);
+        } catch (RejectedExecutionException e) {
+            throw this.rejected(e);
+        }
+    }
+}
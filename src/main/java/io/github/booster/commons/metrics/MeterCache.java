@@ -0,0 +1,66 @@
+package io.github.booster.commons.metrics;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of meter handles keyed by {@link MeterKey}. Reads are
+ * lock free, once the cache is full new handles are no longer cached.
+ * @param <M> type of meter handle.
+ */
+class MeterCache<M> {
+
+    private final ConcurrentHashMap<MeterKey, M> meters = new ConcurrentHashMap<>();
+
+    private final int maxSize;
+
+    MeterCache(int maxSize) {
+        this.maxSize = Math.max(maxSize, 0);
+    }
+
+    /**
+     * Looks up a cached meter handle.
+     * @param key key of the meter.
+     * @return cached handle, null if not cached.
+     */
+    M get(MeterKey key) {
+        return this.meters.get(key);
+    }
+
+    /**
+     * Caches a meter handle if there is still room in the cache.
+     * @param key key of the meter.
+     * @param meter handle to cache.
+     * @return handle cached for the key, which may have been cached by
+     *         another thread already. null if the cache is full.
+     */
+    M putIfAbsent(MeterKey key, M meter) {
+        if (this.isFull()) {
+            return null;
+        }
+        M existing = this.meters.putIfAbsent(key.copy(), meter);
+        return existing == null ? meter : existing;
+    }
+
+    /**
+     * Caches a meter handle if there is still room and no handle is cached for the key.
+     * @param key key of the meter.
+     * @param meter handle to cache.
+     * @return true if the handle was cached by this call.
+     */
+    boolean add(MeterKey key, M meter) {
+        return !this.isFull() && this.meters.putIfAbsent(key.copy(), meter) == null;
+    }
+
+    boolean isFull() {
+        return this.meters.size() >= this.maxSize;
+    }
+
+    Collection<M> values() {
+        return this.meters.values();
+    }
+
+    int size() {
+        return this.meters.size();
+    }
+}
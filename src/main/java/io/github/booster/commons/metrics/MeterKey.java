@@ -0,0 +1,101 @@
+package io.github.booster.commons.metrics;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Key identifying a meter by name and tag tuple. Tag pairs are sorted by
+ * key, so the same tags given in another order identify the same meter.
+ * Hash code is computed once so that repeated lookups only pay for the
+ * equality check.
+ */
+final class MeterKey {
+
+    private final String name;
+
+    private final String[] tags;
+
+    private final int hash;
+
+    MeterKey(String name, String[] tags) {
+        this.name = name;
+        this.tags = tags == null ? new String[0] : sortTags(tags);
+        this.hash = 31 * Objects.hashCode(name) + Arrays.hashCode(this.tags);
+    }
+
+    /**
+     * Sorts tag pairs by key, the array is only copied when not sorted already.
+     */
+    private static String[] sortTags(String[] tags) {
+        if (tags.length % 2 != 0 || isSorted(tags)) {
+            return tags;
+        }
+        String[] sorted = tags.clone();
+        // insertion sort on pairs, tag arrays are short.
+        for (int i = 2; i < sorted.length; i += 2) {
+            String key = sorted[i];
+            String value = sorted[i + 1];
+            int j = i - 2;
+            while (j >= 0 && compareKeys(sorted[j], key) > 0) {
+                sorted[j + 2] = sorted[j];
+                sorted[j + 3] = sorted[j + 1];
+                j -= 2;
+            }
+            sorted[j + 2] = key;
+            sorted[j + 3] = value;
+        }
+        return sorted;
+    }
+
+    private static boolean isSorted(String[] tags) {
+        for (int i = 2; i < tags.length; i += 2) {
+            if (compareKeys(tags[i - 2], tags[i]) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int compareKeys(String first, String second) {
+        if (first == null || second == null) {
+            return first == null ? (second == null ? 0 : -1) : 1;
+        }
+        return first.compareTo(second);
+    }
+
+    /**
+     * Creates a copy of this key that does not share the tag array
+     * with the caller, used when the key is retained in a cache.
+     * @return key with its own copy of the tags.
+     */
+    MeterKey copy() {
+        return new MeterKey(this.name, this.tags.clone());
+    }
+
+    String getName() {
+        return this.name;
+    }
+
+    String[] getTags() {
+        return this.tags;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MeterKey)) {
+            return false;
+        }
+        MeterKey other = (MeterKey) o;
+        return this.hash == other.hash &&
+                Objects.equals(this.name, other.name) &&
+                Arrays.equals(this.tags, other.tags);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.booster.commons.metrics;
+
+/**
+ * Measurement published to {@link AsyncMetricsRecorder} to be applied
+ * to a meter on the consumer thread.
+ */
+final class MetricRecord {
+
+    enum Type {
+        COUNTER,
+        TIMER,
+    }
+
+    private final Type type;
+
+    private final String name;
+
+    private final String[] tags;
+
+    private final double amount;
+
+    private MetricRecord(Type type, String name, String[] tags, double amount) {
+        this.type = type;
+        this.name = name;
+        this.tags = tags;
+        this.amount = amount;
+    }
+
+    static MetricRecord counter(String name, String[] tags, double amount) {
+        return new MetricRecord(Type.COUNTER, name, tags, amount);
+    }
+
+    static MetricRecord timer(String name, String[] tags, long nanos) {
+        return new MetricRecord(Type.TIMER, name, tags, nanos);
+    }
+
+    Type getType() {
+        return this.type;
+    }
+
+    String getName() {
+        return this.name;
+    }
+
+    String[] getTags() {
+        return this.tags;
+    }
+
+    /**
+     * Amount to increment for counters, duration in nanoseconds for timers.
+     * @return amount of the measurement.
+     */
+    double getAmount() {
+        return this.amount;
+    }
+}
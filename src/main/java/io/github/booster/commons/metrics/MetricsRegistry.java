@@ -2,27 +2,41 @@ package io.github.booster.commons.metrics;
 
 import arrow.core.Option;
 import com.google.common.base.Preconditions;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
 import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import io.micrometer.core.instrument.internal.TimedExecutorService;
+import io.micrometer.core.instrument.noop.NoopTimer;
 import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
 import lombok.Getter;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Objects;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.stream.Stream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
 
 /**
  * Micrometer registry wrapper that allows one to
  * insert metric recording code without Micrometer support.
  */
-@Getter
-public class MetricsRegistry {
+public class MetricsRegistry implements AutoCloseable {
 
     private static Logger log = LoggerFactory.getLogger(MetricsRegistry.class);
 
@@ -30,10 +44,110 @@ public class MetricsRegistry {
      * Trace ID tag.
      */
     public static final String TRACE_ID = "traceId";
+
+    /**
+     * Default maximum number of counters or timers cached.
+     */
+    public static final int DEFAULT_METER_CACHE_SIZE = 10000;
+
+    /**
+     * Counter of metrics dropped because the asynchronous recording buffer was full.
+     */
+    public static final String DROPPED_METRICS = "booster.metrics.dropped";
+
+    /**
+     * Counter of tag combinations folded into overflow series by cardinality limits.
+     */
+    public static final String CARDINALITY_REJECTED = "booster.metrics.cardinality.rejected";
+
+    /**
+     * Tag value of overflow series.
+     */
+    public static final String OVERFLOW_TAG_VALUE = "other";
+
+    /**
+     * Default capacity of asynchronous recording buffer.
+     */
+    public static final int DEFAULT_ASYNC_BUFFER_CAPACITY = 65536;
+
+    /**
+     * Used to stop {@link Timer.Sample}s to obtain their durations without recording.
+     */
+    private static final Timer DURATION_TIMER = new NoopTimer(
+            new Meter.Id("booster.duration", Tags.empty(), null, null, Meter.Type.TIMER)
+    );
+
+    /**
+     * Class name prefix of executors created by {@link java.util.concurrent.Executors}
+     * that delegate to a pool {@link ExecutorServiceMetrics} can unwrap.
+     */
+    private static final String DELEGATED_EXECUTOR_PREFIX = "java.util.concurrent.Executors$";
+
+    /**
+     * What to do when asynchronous recording buffer is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Drop the metric and increment {@link #DROPPED_METRICS} counter.
+         */
+        DROP,
+        /**
+         * Record the metric synchronously on calling thread.
+         */
+        SYNC,
+    }
+
+    /**
+     * How trace ID is attached to metrics reported.
+     */
+    public enum TraceMode {
+        /**
+         * Trace ID is not reported.
+         */
+        NONE,
+        /**
+         * Trace ID is inserted as a tag. Every trace creates a new
+         * meter, which causes unbounded cardinality unless cardinality
+         * limits are enabled. Traced meters are not cached, but count
+         * towards limits and fold into the overflow series beyond them.
+         */
+        TAG,
+        /**
+         * Trace ID is left out of tags, meter registries that support
+         * exemplars, such as Prometheus, attach it to samples instead.
+         * {@link TraceExemplars} provides the current trace and span IDs
+         * to such registries.
+         */
+        EXEMPLAR,
+    }
+
+    @Getter
     private final Option<MeterRegistry> registry;
 
+    @Getter
     private final boolean recordTrace;
 
+    @Getter
+    private final TraceMode traceMode;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Clock clock;
+
+    private final MeterCache<BoundCounter> counters;
+
+    private final MeterCache<MicrometerBoundTimer> timers;
+
+    private volatile CounterFlusher counterFlusher;
+
+    private volatile AsyncMetricsRecorder asyncRecorder;
+
+    private volatile Map<String, HistogramSetting> histogramSettings = Map.of();
+
+    private volatile CardinalityGuard cardinalityGuard;
+
+    private final ConcurrentHashMap<String, InstrumentedExecutorService> executors = new ConcurrentHashMap<>();
+
     /**
      * Constructs a noop registry. No metrics will be reported.
      */
@@ -56,8 +170,47 @@ public class MetricsRegistry {
      *                    cause a cardinality issue.
      */
     public MetricsRegistry(MeterRegistry registry, boolean recordTrace) {
+        this(registry, recordTrace, DEFAULT_METER_CACHE_SIZE);
+    }
+
+    /**
+     * Constructor with provided {@link MeterRegistry}
+     * @param registry {@link MeterRegistry}, if null behaves the same as noop constructor.
+     * @param recordTrace whether to include trace ID in metrics reported. this can
+     *                    cause a cardinality issue.
+     * @param meterCacheSize maximum number of counters and timers to cache
+     *                       respectively. Once full, new meters are looked up
+     *                       from {@link MeterRegistry} on every call.
+     */
+    public MetricsRegistry(MeterRegistry registry, boolean recordTrace, int meterCacheSize) {
+        this(registry, recordTrace ? TraceMode.TAG : TraceMode.NONE, meterCacheSize);
+    }
+
+    /**
+     * Constructor with provided {@link MeterRegistry}
+     * @param registry {@link MeterRegistry}, if null behaves the same as noop constructor.
+     * @param traceMode how trace ID is attached to metrics, defaults to {@link TraceMode#NONE} if null.
+     */
+    public MetricsRegistry(MeterRegistry registry, TraceMode traceMode) {
+        this(registry, traceMode, DEFAULT_METER_CACHE_SIZE);
+    }
+
+    /**
+     * Constructor with provided {@link MeterRegistry}
+     * @param registry {@link MeterRegistry}, if null behaves the same as noop constructor.
+     * @param traceMode how trace ID is attached to metrics, defaults to {@link TraceMode#NONE} if null.
+     * @param meterCacheSize maximum number of counters and timers to cache
+     *                       respectively. Once full, new meters are looked up
+     *                       from {@link MeterRegistry} on every call.
+     */
+    public MetricsRegistry(MeterRegistry registry, TraceMode traceMode, int meterCacheSize) {
         this.registry = Option.fromNullable(registry);
-        this.recordTrace = recordTrace;
+        this.meterRegistry = registry;
+        this.clock = registry == null ? null : registry.config().clock();
+        this.traceMode = traceMode == null ? TraceMode.NONE : traceMode;
+        this.recordTrace = this.traceMode == TraceMode.TAG;
+        this.counters = new MeterCache<>(meterCacheSize);
+        this.timers = new MeterCache<>(meterCacheSize);
     }
 
     /**
@@ -78,14 +231,352 @@ public class MetricsRegistry {
         return tags;
     }
 
-    private String[] insertTraceTag(String... tags) {
-        if (recordTrace && !Stream.of(tags).filter(tag -> Objects.equals(tag, TRACE_ID)).findAny().isPresent()) {
-            Span span = Span.current();
-            if (span != null && span.getSpanContext().isValid()) {
-                return MetricsRegistry.createTraceTags(span, tags);
+    private static boolean hasTraceTag(String... tags) {
+        if (tags == null) {
+            return false;
+        }
+        for (int i = 0; i < tags.length; i += 2) {
+            if (TRACE_ID.equals(tags[i])) {
+                return true;
             }
         }
-        return tags;
+        return false;
+    }
+
+    /**
+     * Inserts trace ID tag only in {@link TraceMode#TAG} mode, in which
+     * case a new tag array is created as trace ID differs per call.
+     * Tags are returned as is otherwise, without any allocation.
+     */
+    private String[] insertTraceTag(String... tags) {
+        if (!this.recordTrace || tags == null || hasTraceTag(tags)) {
+            return tags;
+        }
+        Span span = Span.current();
+        SpanContext spanContext = span.getSpanContext();
+        if (!spanContext.isValid()) {
+            return tags;
+        }
+        String[] newTags = new String[tags.length + 2];
+        System.arraycopy(tags, 0, newTags, 0, tags.length);
+        newTags[tags.length] = TRACE_ID;
+        newTags[tags.length + 1] = spanContext.getTraceId();
+        return newTags;
+    }
+
+    /**
+     * Switches counters to buffered recording. Increments are accumulated in
+     * striped cells and pushed to {@link MeterRegistry} every flush interval,
+     * which trades freshness for multi-core throughput on very hot counters.
+     * Only applies to counters first used after this call, and to counters
+     * that fit in the meter cache.
+     * @param flushInterval interval to push buffered increments.
+     */
+    public synchronized void enableBufferedCounters(Duration flushInterval) {
+        Preconditions.checkArgument(
+                flushInterval != null && !flushInterval.isNegative() && !flushInterval.isZero(),
+                "flush interval must be positive"
+        );
+        if (this.meterRegistry != null && this.counterFlusher == null) {
+            this.counterFlusher = new CounterFlusher(this.counters, flushInterval);
+        }
+    }
+
+    /**
+     * Switches {@link #incrementCounter(String, String...)} and
+     * {@link #endSample(Option, String, String...)} to asynchronous recording.
+     * Calls only publish a small record into a bounded lock-free buffer, a
+     * dedicated daemon thread resolves meters and records them in batches.
+     * Trace ID tag is still resolved on the calling thread.
+     * @param capacity capacity of the buffer, rounded up to the next power of 2.
+     * @param overflowPolicy what to do when the buffer is full, defaults to {@link OverflowPolicy#DROP}.
+     */
+    public synchronized void enableAsyncRecording(int capacity, OverflowPolicy overflowPolicy) {
+        Preconditions.checkArgument(capacity > 0, "capacity must be positive");
+        if (this.meterRegistry != null && this.asyncRecorder == null) {
+            this.asyncRecorder = new AsyncMetricsRecorder(
+                    capacity,
+                    overflowPolicy == null ? OverflowPolicy.DROP : overflowPolicy,
+                    this.meterRegistry.counter(DROPPED_METRICS),
+                    this::applyRecord
+            );
+        }
+    }
+
+    private void applyRecord(MetricRecord record) {
+        if (record.getType() == MetricRecord.Type.COUNTER) {
+            this.lookupCounter(record.getName(), record.getTags()).increment(record.getAmount());
+        } else {
+            this.lookupTimer(record.getName(), record.getTags()).record((long) record.getAmount());
+        }
+    }
+
+    /**
+     * Pushes increments of buffered counters to {@link MeterRegistry} immediately.
+     */
+    public void flush() {
+        CounterFlusher flusher = this.counterFlusher;
+        if (flusher != null) {
+            flusher.flush();
+        }
+    }
+
+    /**
+     * Stops asynchronous recording and background flushing after
+     * recording all published metrics and pushing all buffered increments.
+     * Metrics are recorded synchronously afterwards, and asynchronous
+     * recording or buffered counters can be enabled again.
+     */
+    @Override
+    public synchronized void close() {
+        AsyncMetricsRecorder recorder = this.asyncRecorder;
+        this.asyncRecorder = null;
+        if (recorder != null) {
+            recorder.close();
+        }
+        CounterFlusher flusher = this.counterFlusher;
+        this.counterFlusher = null;
+        if (flusher != null) {
+            flusher.close();
+        }
+    }
+
+    /**
+     * Limits number of distinct tag combinations per meter name. Once a name
+     * reaches its limit, new combinations are recorded into an overflow series
+     * whose tag values are all {@link #OVERFLOW_TAG_VALUE}, and
+     * {@link #CARDINALITY_REJECTED} counter is incremented once per rejected
+     * combination. Rejected combinations take a cache entry pointing at the
+     * overflow series, combinations rejected once the cache is full cannot be
+     * remembered and are not counted. While enabled, new
+     * combinations are also folded when the meter cache is full. Only counts
+     * combinations first used after this call.
+     * @param defaultLimit limit for meter names not in limits, unlimited if not positive.
+     * @param limits limits by meter name, not positive means unlimited.
+     */
+    public void enableCardinalityLimits(int defaultLimit, Map<String, Integer> limits) {
+        this.cardinalityGuard = new CardinalityGuard(defaultLimit, limits);
+    }
+
+    /**
+     * Sets latency distribution of timers. Keys are either full timer names,
+     * or name prefixes that match timers whose names start with the prefix
+     * followed by a dot, e.g. "http.client" matches "http.client.requests".
+     * Exact names take precedence, then the longest matching prefix. Only
+     * applies to timers first used after this call.
+     * @param histogramSettings map of {@link HistogramSetting} identified by timer name or prefix.
+     */
+    public void setHistogramSettings(Map<String, HistogramSetting> histogramSettings) {
+        this.histogramSettings = histogramSettings == null ?
+                Map.of() :
+                new HashMap<>(histogramSettings);
+    }
+
+    private HistogramSetting findHistogramSetting(String name) {
+        Map<String, HistogramSetting> settings = this.histogramSettings;
+        if (settings.isEmpty() || name == null) {
+            return null;
+        }
+        HistogramSetting setting = settings.get(name);
+        for (int index = name.lastIndexOf('.'); setting == null && index > 0; index = name.lastIndexOf('.', index - 1)) {
+            setting = settings.get(name.substring(0, index));
+        }
+        return setting;
+    }
+
+    private Timer buildTimer(String name, String... tags) {
+        HistogramSetting setting = this.findHistogramSetting(name);
+        return setting == null ?
+                this.meterRegistry.timer(name, tags) :
+                setting.configure(Timer.builder(name).tags(tags)).register(this.meterRegistry);
+    }
+
+    private BoundCounter lookupCounter(String name, String... tags) {
+        MeterKey key = new MeterKey(name, tags);
+        BoundCounter counter = this.counters.get(key);
+        if (counter != null) {
+            return counter;
+        }
+        if (hasTraceTag(tags)) {
+            return this.lookupTracedCounter(key);
+        }
+        CardinalityGuard guard = this.cardinalityGuard;
+        if (guard == null) {
+            return this.createCounter(key, null);
+        }
+        if (!guard.tryAdmit(name)) {
+            return this.lookupOverflowCounter(key);
+        }
+        if (this.counters.isFull()) {
+            guard.release(name);
+            return this.lookupOverflowCounter(key);
+        }
+        return this.createCounter(key, guard);
+    }
+
+    private BoundCounter lookupTracedCounter(MeterKey key) {
+        // single use per trace, caching it would crowd out other meters, but it still counts towards limits.
+        Counter existing = this.meterRegistry.find(key.getName()).tags(key.getTags()).counter();
+        if (existing != null) {
+            return new MicrometerBoundCounter(existing);
+        }
+        CardinalityGuard guard = this.cardinalityGuard;
+        if (guard != null && !guard.tryAdmit(key.getName())) {
+            this.rejectCombination(key.getName());
+            return this.overflowCounter(key);
+        }
+        return new MicrometerBoundCounter(this.meterRegistry.counter(key.getName(), key.getTags()));
+    }
+
+    private BoundCounter overflowCounter(MeterKey key) {
+        MeterKey overflowKey = new MeterKey(key.getName(), CardinalityGuard.overflowTags(key.getTags()));
+        BoundCounter counter = this.counters.get(overflowKey);
+        return counter == null ? this.createCounter(overflowKey, null) : counter;
+    }
+
+    private BoundCounter lookupOverflowCounter(MeterKey key) {
+        BoundCounter overflow = this.overflowCounter(key);
+        // rejected combination resolves straight to overflow from now on, so it is rejected once.
+        if (this.counters.add(key, overflow)) {
+            this.rejectCombination(key.getName());
+        }
+        return overflow;
+    }
+
+    /**
+     * Creates and caches a counter, releasing the admission of guard when
+     * another thread cached the combination first or the cache is full.
+     */
+    private BoundCounter createCounter(MeterKey key, CardinalityGuard guard) {
+        Counter micrometerCounter = this.meterRegistry.counter(key.getName(), key.getTags());
+        BoundCounter created = this.counterFlusher == null ?
+                new MicrometerBoundCounter(micrometerCounter) :
+                new BufferedBoundCounter(micrometerCounter);
+        BoundCounter cached = this.counters.putIfAbsent(key, created);
+        if (guard != null && cached != created) {
+            guard.release(key.getName());
+        }
+        // buffered counters are only flushed when cached.
+        return cached == null ? new MicrometerBoundCounter(micrometerCounter) : cached;
+    }
+
+    private MicrometerBoundTimer lookupTimer(String name, String... tags) {
+        MeterKey key = new MeterKey(name, tags);
+        MicrometerBoundTimer timer = this.timers.get(key);
+        if (timer != null) {
+            return timer;
+        }
+        if (hasTraceTag(tags)) {
+            return this.lookupTracedTimer(key);
+        }
+        CardinalityGuard guard = this.cardinalityGuard;
+        if (guard == null) {
+            return this.createTimer(key, null);
+        }
+        if (!guard.tryAdmit(name)) {
+            return this.lookupOverflowTimer(key);
+        }
+        if (this.timers.isFull()) {
+            guard.release(name);
+            return this.lookupOverflowTimer(key);
+        }
+        return this.createTimer(key, guard);
+    }
+
+    private MicrometerBoundTimer lookupTracedTimer(MeterKey key) {
+        // single use per trace, caching it would crowd out other meters, but it still counts towards limits.
+        Timer existing = this.meterRegistry.find(key.getName()).tags(key.getTags()).timer();
+        if (existing != null) {
+            return new MicrometerBoundTimer(existing);
+        }
+        CardinalityGuard guard = this.cardinalityGuard;
+        if (guard != null && !guard.tryAdmit(key.getName())) {
+            this.rejectCombination(key.getName());
+            return this.overflowTimer(key);
+        }
+        return new MicrometerBoundTimer(this.buildTimer(key.getName(), key.getTags()));
+    }
+
+    private MicrometerBoundTimer overflowTimer(MeterKey key) {
+        MeterKey overflowKey = new MeterKey(key.getName(), CardinalityGuard.overflowTags(key.getTags()));
+        MicrometerBoundTimer timer = this.timers.get(overflowKey);
+        return timer == null ? this.createTimer(overflowKey, null) : timer;
+    }
+
+    private MicrometerBoundTimer lookupOverflowTimer(MeterKey key) {
+        MicrometerBoundTimer overflow = this.overflowTimer(key);
+        // rejected combination resolves straight to overflow from now on, so it is rejected once.
+        if (this.timers.add(key, overflow)) {
+            this.rejectCombination(key.getName());
+        }
+        return overflow;
+    }
+
+    /**
+     * Creates and caches a timer, releasing the admission of guard when
+     * another thread cached the combination first or the cache is full.
+     */
+    private MicrometerBoundTimer createTimer(MeterKey key, CardinalityGuard guard) {
+        MicrometerBoundTimer created = new MicrometerBoundTimer(this.buildTimer(key.getName(), key.getTags()));
+        MicrometerBoundTimer cached = this.timers.putIfAbsent(key, created);
+        if (guard != null && cached != created) {
+            guard.release(key.getName());
+        }
+        return cached == null ? created : cached;
+    }
+
+    private void rejectCombination(String name) {
+        MeterKey key = new MeterKey(CARDINALITY_REJECTED, new String[] {"name", name});
+        BoundCounter counter = this.counters.get(key);
+        (counter == null ? this.createCounter(key, null) : counter).increment();
+    }
+
+    /**
+     * Resolves a counter once so that it can be held and incremented
+     * without further lookups. Trace ID is not inserted into tags of
+     * bound counters.
+     * @param name name of the counter
+     * @param tags tags for the counter
+     * @return {@link BoundCounter}, noop if no {@link MeterRegistry} is configured.
+     */
+    public BoundCounter counter(String name, String... tags) {
+        return this.meterRegistry == null ? BoundCounter.NOOP : this.lookupCounter(name, tags);
+    }
+
+    /**
+     * Resolves a timer once so that it can be held and recorded
+     * without further lookups. Trace ID is not inserted into tags of
+     * bound timers.
+     * @param name name of the timer
+     * @param tags tags for the timer
+     * @return {@link BoundTimer}, noop if no {@link MeterRegistry} is configured.
+     */
+    public BoundTimer timer(String name, String... tags) {
+        return this.meterRegistry == null ? BoundTimer.NOOP : this.lookupTimer(name, tags);
+    }
+
+    /**
+     * Resolves a timer that only times a fraction of calls, for paths where
+     * reading the clock on every call is too expensive. Sampled calls are
+     * recorded into timer name followed by {@link SampledTimer#SAMPLED_SUFFIX},
+     * all calls are counted in counter name followed by
+     * {@link SampledTimer#CALLS_SUFFIX}. Both go through histogram settings,
+     * matched by name prefix, and cardinality limits.
+     * @param name name of the timer
+     * @param rate fraction of calls to time, greater than 0 and at most 1.
+     * @param tags tags for the timer
+     * @return {@link SampledTimer}, noop if no {@link MeterRegistry} is configured.
+     */
+    public SampledTimer sampledTimer(String name, double rate, String... tags) {
+        Preconditions.checkArgument(rate > 0.0 && rate <= 1.0, "rate must be greater than 0 and at most 1");
+        return this.meterRegistry == null ?
+                SampledTimer.NOOP :
+                new SampledTimer(
+                        this.clock,
+                        this.lookupTimer(name + SampledTimer.SAMPLED_SUFFIX, tags),
+                        this.lookupCounter(name + SampledTimer.CALLS_SUFFIX, tags),
+                        rate
+                );
     }
 
     /**
@@ -103,7 +594,82 @@ public class MetricsRegistry {
      * @param tags optional tags for the timer.
      */
     public void endSample(Option<Timer.Sample> sampleTimer, String name, String... tags) {
-        registry.map(reg -> sampleTimer.map(sample -> sample.stop(reg.timer(name, this.insertTraceTag(tags)))));
+        if (this.meterRegistry != null && sampleTimer != null) {
+            Timer.Sample sample = sampleTimer.orNull();
+            if (sample != null) {
+                this.recordTimer(name, sample.stop(DURATION_TIMER), tags);
+            }
+        }
+    }
+
+    /**
+     * Start timing without allocating a {@link Timer.Sample}.
+     * @return start time in nanoseconds to be passed to
+     *         {@link #recordSince(long, String, String...)}, 0 if no
+     *         {@link MeterRegistry} is configured.
+     */
+    public long start() {
+        return this.clock == null ? 0L : this.clock.monotonicTime();
+    }
+
+    /**
+     * Record the time elapsed since start.
+     * @param startNanos start time obtained from {@link #start()}
+     * @param name name of the timer
+     * @param tags optional tags for the timer.
+     */
+    public void recordSince(long startNanos, String name, String... tags) {
+        if (this.meterRegistry != null) {
+            this.recordTimer(name, this.clock.monotonicTime() - startNanos, tags);
+        }
+    }
+
+    /**
+     * Times a {@link Supplier}, time is recorded even if the supplier throws.
+     * @param supplier supplier to time
+     * @param name name of the timer
+     * @param tags optional tags for the timer.
+     * @param <T> type of value supplied.
+     * @return value returned by supplier.
+     */
+    public <T> T time(Supplier<T> supplier, String name, String... tags) {
+        long start = this.start();
+        try {
+            return supplier.get();
+        } finally {
+            this.recordSince(start, name, tags);
+        }
+    }
+
+    /**
+     * Times a {@link Runnable}, time is recorded even if the runnable throws.
+     * @param runnable runnable to time
+     * @param name name of the timer
+     * @param tags optional tags for the timer.
+     */
+    public void time(Runnable runnable, String name, String... tags) {
+        long start = this.start();
+        try {
+            runnable.run();
+        } finally {
+            this.recordSince(start, name, tags);
+        }
+    }
+
+    private void recordTimer(String name, long nanos, String... tags) {
+        String[] resolvedTags = this.insertTraceTag(tags);
+        AsyncMetricsRecorder recorder = this.asyncRecorder;
+        if (recorder == null || !recorder.publish(MetricRecord.timer(name, resolvedTags, nanos))) {
+            this.lookupTimer(name, resolvedTags).record(nanos);
+        }
+    }
+
+    private void recordCounter(String name, double increment, String... tags) {
+        String[] resolvedTags = this.insertTraceTag(tags);
+        AsyncMetricsRecorder recorder = this.asyncRecorder;
+        if (recorder == null || !recorder.publish(MetricRecord.counter(name, resolvedTags, increment))) {
+            this.lookupCounter(name, resolvedTags).increment(increment);
+        }
     }
 
     /**
@@ -112,10 +678,9 @@ public class MetricsRegistry {
      * @param tags tags for the counter
      */
     public void incrementCounter(String name, String... tags) {
-        registry.map(reg -> reg.counter(name, this.insertTraceTag(tags))).map(counter -> {
-            counter.increment();
-            return counter;
-        });
+        if (this.meterRegistry != null) {
+            this.recordCounter(name, 1.0, tags);
+        }
     }
 
     /**
@@ -125,10 +690,9 @@ public class MetricsRegistry {
      * @param tags tags for the counter
      */
     public void incrementCounter(String name, double increment, String... tags) {
-        registry.map(reg -> reg.counter(name, this.insertTraceTag(tags))).map(counter -> {
-            counter.increment(increment);
-            return counter;
-        });
+        if (this.meterRegistry != null) {
+            this.recordCounter(name, increment, tags);
+        }
     }
 
     /**
@@ -149,7 +713,56 @@ public class MetricsRegistry {
     }
 
     /**
-     * Monitor thread pool usage
+     * Registers a gauge reading a primitive value from an object. The object
+     * is strongly referenced, so callers do not need to keep it alive.
+     * @param name name of the gauge.
+     * @param obj object the value is obtained from.
+     * @param valueFunction function providing the value.
+     * @param tags tags for the gauge
+     * @param <T> type of object.
+     */
+    public <T> void gauge(String name, T obj, ToDoubleFunction<T> valueFunction, String... tags) {
+        if (this.meterRegistry != null) {
+            Gauge.builder(name, obj, valueFunction)
+                    .tags(tags)
+                    .strongReference(true)
+                    .register(this.meterRegistry);
+        }
+    }
+
+    /**
+     * Registers a gauge reading a primitive value from a supplier. The supplier
+     * is strongly referenced, so callers do not need to keep it alive.
+     * @param name name of the gauge.
+     * @param valueSupplier supplier of the value.
+     * @param tags tags for the gauge
+     */
+    public void gauge(String name, DoubleSupplier valueSupplier, String... tags) {
+        this.gauge(name, valueSupplier, DoubleSupplier::getAsDouble, tags);
+    }
+
+    /**
+     * Creates a set of gauge rows sharing name and tags, whose rows can be
+     * registered or replaced in batches.
+     * @param name name of the gauges.
+     * @param tags tags common to all rows.
+     * @return {@link BoundMultiGauge}, noop if no {@link MeterRegistry} is configured.
+     */
+    public BoundMultiGauge multiGauge(String name, String... tags) {
+        return this.meterRegistry == null ?
+                BoundMultiGauge.NOOP :
+                new MicrometerBoundMultiGauge(MultiGauge.builder(name).tags(tags).register(this.meterRegistry));
+    }
+
+    /**
+     * Monitor thread pool usage. Records task waiting time as executor.idle and
+     * execution time as executor timers, counts rejected tasks as executor.rejected
+     * and reports running tasks as executor.tasks.running, all tagged with name.
+     * Pool gauges are bound in addition for {@link java.util.concurrent.ThreadPoolExecutor}
+     * and {@link java.util.concurrent.ForkJoinPool}. Works with any executor, including
+     * virtual thread per task executors. {@link ScheduledExecutorService}s are
+     * returned as {@link ScheduledExecutorService}s. A name can only be reused
+     * once the executor previously monitored with it is shut down.
      * @param executorService {@link ExecutorService} to be monitored
      * @param name value to use for name tag
      * @return a monitored {@link ExecutorService}
@@ -162,17 +775,63 @@ public class MetricsRegistry {
                 Option.fromNullable(null) : executorService;
 
         Option<ExecutorService> monitoredExecutorOption = this.registry.flatMap(reg ->
-                executorServiceOption.map(executor -> {
-                    log.debug("booster-task - attempting to measure thread pool: [{}]", name);
-                    // if already monitored, return directly.
-                    if (executor instanceof TimedExecutorService) {
-                        log.debug("booster-task - thread pool [{}] already monitored", name);
-                        return executor;
-                    }
-                    // otherwise, monitor it.
-                    log.debug("booster-task - monitoring thread pool [{}]", name);
-                    return ExecutorServiceMetrics.monitor(reg, executor, name);
-                }));
+                executorServiceOption.map(executor -> this.instrument(reg, executor, name)));
         return monitoredExecutorOption.isEmpty() ? executorServiceOption : monitoredExecutorOption;
     }
+
+    /**
+     * Monitor scheduled thread pool usage, same as {@link #measureExecutorService(Option, String)}
+     * in addition to counting tasks scheduled once and repetitively.
+     * @param executorService {@link ScheduledExecutorService} to be monitored
+     * @param name value to use for name tag
+     * @return a monitored {@link ScheduledExecutorService}
+     */
+    public Option<ScheduledExecutorService> measureScheduledExecutorService(
+            Option<ScheduledExecutorService> executorService,
+            String name
+    ) {
+        Preconditions.checkArgument(StringUtils.isNotBlank(name), "name cannot be blank");
+
+        final Option<ScheduledExecutorService> executorServiceOption = executorService == null ?
+                Option.fromNullable(null) : executorService;
+
+        Option<ScheduledExecutorService> monitoredExecutorOption = this.registry.flatMap(reg ->
+                executorServiceOption.map(executor -> (ScheduledExecutorService) this.instrument(reg, executor, name)));
+        return monitoredExecutorOption.isEmpty() ? executorServiceOption : monitoredExecutorOption;
+    }
+
+    private ExecutorService instrument(MeterRegistry reg, ExecutorService executor, String name) {
+        log.debug("booster-task - attempting to measure thread pool: [{}]", name);
+        // if already monitored, return directly.
+        if (executor instanceof TimedExecutorService || executor instanceof InstrumentedExecutorService) {
+            log.debug("booster-task - thread pool [{}] already monitored", name);
+            return executor;
+        }
+        // otherwise, monitor it.
+        log.debug("booster-task - monitoring thread pool [{}]", name);
+        InstrumentedExecutorService instrumented = this.executors.compute(name, (key, current) -> {
+            // gauges of a second live executor with the same name would be silently dropped.
+            Preconditions.checkArgument(
+                    current == null || current.isShutdown(),
+                    "executor [%s] is already monitored",
+                    name
+            );
+            return executor instanceof ScheduledExecutorService ?
+                    new InstrumentedScheduledExecutorService((ScheduledExecutorService) executor, this, name) :
+                    new InstrumentedExecutorService(executor, this, name);
+        });
+        // registered once per name, reads the executor currently monitored under the name.
+        this.gauge(
+                InstrumentedExecutorService.RUNNING,
+                () -> this.executors.get(name).getRunningTasks(),
+                "name",
+                name
+        );
+        if (executor instanceof ThreadPoolExecutor ||
+                executor instanceof ForkJoinPool ||
+                executor.getClass().getName().startsWith(DELEGATED_EXECUTOR_PREFIX)) {
+            new ExecutorServiceMetrics(executor, name, Tags.empty()).bindTo(reg);
+        }
+        return instrumented;
+    }
 }
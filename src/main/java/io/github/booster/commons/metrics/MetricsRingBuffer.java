@@ -0,0 +1,98 @@
+package io.github.booster.commons.metrics;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free ring buffer for multiple producers and a single consumer.
+ * Each slot carries a sequence number so producers claim slots with a single
+ * CAS on the tail and never wait for each other or for the consumer.
+ * @param <E> type of element.
+ */
+class MetricsRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> elements;
+
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    private final int mask;
+
+    // only accessed by the consumer thread.
+    private long head;
+
+    /**
+     * Creates a ring buffer.
+     * @param capacity capacity, rounded up to the next power of 2 and at least 2,
+     *                 as with a single slot a published sequence would be
+     *                 mistaken for a free slot of the next round.
+     */
+    MetricsRingBuffer(int capacity) {
+        Preconditions.checkArgument(capacity > 0 && capacity <= (1 << 30), "capacity must be between 1 and 2^30");
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            this.sequences.set(i, i);
+        }
+        this.mask = size - 1;
+    }
+
+    int capacity() {
+        return this.mask + 1;
+    }
+
+    /**
+     * Publishes an element, safe to call from any thread.
+     * @param element element to publish.
+     * @return false if the buffer is full.
+     */
+    boolean offer(E element) {
+        long position = this.tail.get();
+        while (true) {
+            int index = (int) (position & this.mask);
+            long difference = this.sequences.get(index) - position;
+            if (difference == 0) {
+                if (this.tail.compareAndSet(position, position + 1)) {
+                    this.elements.lazySet(index, element);
+                    this.sequences.set(index, position + 1);
+                    return true;
+                }
+                position = this.tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = this.tail.get();
+            }
+        }
+    }
+
+    /**
+     * Removes up to maxElements published elements, must only be called
+     * from the single consumer thread.
+     * @param consumer consumer of removed elements.
+     * @param maxElements maximum number of elements to remove.
+     * @return number of elements removed.
+     */
+    int drain(Consumer<E> consumer, int maxElements) {
+        int drained = 0;
+        while (drained < maxElements) {
+            int index = (int) (this.head & this.mask);
+            if (this.sequences.get(index) != this.head + 1) {
+                break;
+            }
+            E element = this.elements.get(index);
+            this.elements.lazySet(index, null);
+            this.sequences.set(index, this.head + this.mask + 1);
+            this.head++;
+            drained++;
+            consumer.accept(element);
+        }
+        return drained;
+    }
+}
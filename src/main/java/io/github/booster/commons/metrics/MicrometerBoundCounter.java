@@ -0,0 +1,25 @@
+package io.github.booster.commons.metrics;
+
+import io.micrometer.core.instrument.Counter;
+
+/**
+ * {@link BoundCounter} backed by a Micrometer {@link Counter}.
+ */
+class MicrometerBoundCounter implements BoundCounter {
+
+    private final Counter counter;
+
+    MicrometerBoundCounter(Counter counter) {
+        this.counter = counter;
+    }
+
+    @Override
+    public void increment() {
+        this.counter.increment();
+    }
+
+    @Override
+    public void increment(double amount) {
+        this.counter.increment(amount);
+    }
+}
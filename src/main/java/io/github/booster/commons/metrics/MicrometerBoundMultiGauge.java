@@ -0,0 +1,47 @@
+package io.github.booster.commons.metrics;
+
+import com.google.common.util.concurrent.AtomicDouble;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * {@link BoundMultiGauge} backed by a Micrometer {@link MultiGauge}. Each
+ * row reads from a value holder kept per row tags, so refreshing values
+ * never re-registers existing rows.
+ */
+class MicrometerBoundMultiGauge implements BoundMultiGauge {
+
+    private final MultiGauge multiGauge;
+
+    private Map<Tags, AtomicDouble> values = new HashMap<>();
+
+    MicrometerBoundMultiGauge(MultiGauge multiGauge) {
+        this.multiGauge = multiGauge;
+    }
+
+    @Override
+    public synchronized <T> void register(Iterable<T> items, Function<T, Tags> tags, ToDoubleFunction<T> value) {
+        Map<Tags, AtomicDouble> refreshed = new HashMap<>();
+        List<MultiGauge.Row<?>> rows = new ArrayList<>();
+        for (T item : items) {
+            Tags rowTags = tags.apply(item);
+            AtomicDouble holder = this.values.get(rowTags);
+            if (holder == null) {
+                holder = new AtomicDouble();
+            }
+            holder.set(value.applyAsDouble(item));
+            if (refreshed.put(rowTags, holder) == null) {
+                rows.add(MultiGauge.Row.of(rowTags, holder, AtomicDouble::get));
+            }
+        }
+        this.multiGauge.register(rows, false);
+        this.values = refreshed;
+    }
+}
@@ -0,0 +1,22 @@
+package io.github.booster.commons.metrics;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BoundTimer} backed by a Micrometer {@link Timer}.
+ */
+class MicrometerBoundTimer implements BoundTimer {
+
+    private final Timer timer;
+
+    MicrometerBoundTimer(Timer timer) {
+        this.timer = timer;
+    }
+
+    @Override
+    public void record(long nanos) {
+        this.timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
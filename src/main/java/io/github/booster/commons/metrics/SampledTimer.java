@@ -0,0 +1,99 @@
+package io.github.booster.commons.metrics;
+
+import io.micrometer.core.instrument.Clock;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Timer for paths too hot to read the clock on every call. Only a sampled
+ * fraction of calls is timed, chosen with a thread local random number so
+ * there is no contention. Sampled calls are recorded into a regular timer
+ * named with {@link #SAMPLED_SUFFIX}, so max, percentiles and histogram
+ * buckets are reported as usual, while every call is counted exactly in a
+ * counter named with {@link #CALLS_SUFFIX} to keep throughput correct.
+ *
+ * <pre>
+ * long start = timer.start();
+ * ...
+ * timer.stop(start);
+ * </pre>
+ */
+public final class SampledTimer implements BoundTimer {
+
+    /**
+     * Start time returned for calls that are not sampled.
+     */
+    public static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+    /**
+     * Suffix of the timer name sampled durations are recorded into, so they
+     * never mix with a full timer of the same name.
+     */
+    public static final String SAMPLED_SUFFIX = ".sampled";
+
+    /**
+     * Suffix of the counter name counting all calls.
+     */
+    public static final String CALLS_SUFFIX = ".calls";
+
+    /**
+     * Timer that records nothing, returned when no
+     * {@link io.micrometer.core.instrument.MeterRegistry} is configured.
+     */
+    public static final SampledTimer NOOP = new SampledTimer(null, BoundTimer.NOOP, BoundCounter.NOOP, 0.0);
+
+    private final Clock clock;
+
+    private final BoundTimer timer;
+
+    private final BoundCounter calls;
+
+    private final double rate;
+
+    SampledTimer(Clock clock, BoundTimer timer, BoundCounter calls, double rate) {
+        this.clock = clock;
+        this.timer = timer;
+        this.calls = calls;
+        this.rate = rate;
+    }
+
+    /**
+     * Sampling rate.
+     * @return fraction of calls timed, between 0 and 1.
+     */
+    public double getRate() {
+        return this.rate;
+    }
+
+    /**
+     * Starts timing a call if it is sampled.
+     * @return start time in nanoseconds, {@link #NOT_SAMPLED} if call is not sampled.
+     */
+    public long start() {
+        if (this.clock == null || (this.rate < 1.0 && ThreadLocalRandom.current().nextDouble() >= this.rate)) {
+            return NOT_SAMPLED;
+        }
+        return this.clock.monotonicTime();
+    }
+
+    /**
+     * Counts a call, and records its duration if it is sampled.
+     * @param startNanos value returned by {@link #start()}
+     */
+    public void stop(long startNanos) {
+        this.calls.increment();
+        if (startNanos != NOT_SAMPLED) {
+            this.timer.record(this.clock.monotonicTime() - startNanos);
+        }
+    }
+
+    /**
+     * Counts a call and records a duration measured by the caller, as a sampled call.
+     * @param nanos duration in nanoseconds.
+     */
+    @Override
+    public void record(long nanos) {
+        this.calls.increment();
+        this.timer.record(nanos);
+    }
+}
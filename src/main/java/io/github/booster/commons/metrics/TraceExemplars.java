@@ -0,0 +1,49 @@
+package io.github.booster.commons.metrics;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+
+/**
+ * Provides trace and span IDs of the current OpenTelemetry span, to be
+ * used by exemplar samplers of meter registries when
+ * {@link MetricsRegistry.TraceMode#EXEMPLAR} is used. For example,
+ * a Prometheus span context supplier can delegate its trace ID,
+ * span ID and sampled lookups to this class.
+ */
+public final class TraceExemplars {
+
+    private TraceExemplars() {
+    }
+
+    private static SpanContext currentContext() {
+        SpanContext spanContext = Span.current().getSpanContext();
+        return spanContext.isValid() ? spanContext : null;
+    }
+
+    /**
+     * Trace ID of current span.
+     * @return trace ID, null if there is no valid span.
+     */
+    public static String currentTraceId() {
+        SpanContext spanContext = currentContext();
+        return spanContext == null ? null : spanContext.getTraceId();
+    }
+
+    /**
+     * Span ID of current span.
+     * @return span ID, null if there is no valid span.
+     */
+    public static String currentSpanId() {
+        SpanContext spanContext = currentContext();
+        return spanContext == null ? null : spanContext.getSpanId();
+    }
+
+    /**
+     * Whether current span is sampled.
+     * @return true if there is a valid and sampled span.
+     */
+    public static boolean isSampled() {
+        SpanContext spanContext = currentContext();
+        return spanContext != null && spanContext.isSampled();
+    }
+}
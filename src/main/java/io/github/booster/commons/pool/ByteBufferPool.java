@@ -0,0 +1,47 @@
+package io.github.booster.commons.pool;
+
+import com.google.common.base.Preconditions;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link ObjectPool} of fixed capacity {@link ByteBuffer}s, optionally direct
+ * so that off-heap memory is allocated once and reused rather than left for
+ * garbage collection. Buffers are cleared when released.
+ */
+public class ByteBufferPool extends ObjectPool<ByteBuffer> {
+
+    private final int bufferCapacity;
+
+    private final boolean direct;
+
+    /**
+     * Creates a buffer pool.
+     * @param setting {@link ObjectPoolSetting}, default if null.
+     * @param bufferCapacity capacity of each buffer in bytes.
+     * @param direct whether to allocate direct buffers.
+     */
+    public ByteBufferPool(ObjectPoolSetting setting, int bufferCapacity, boolean direct) {
+        super(setting);
+        Preconditions.checkArgument(bufferCapacity > 0, "buffer capacity must be positive");
+        this.bufferCapacity = bufferCapacity;
+        this.direct = direct;
+    }
+
+    @Override
+    protected ByteBuffer createObject() {
+        return this.direct ?
+                ByteBuffer.allocateDirect(this.bufferCapacity) :
+                ByteBuffer.allocate(this.bufferCapacity);
+    }
+
+    @Override
+    protected boolean validateObject(ByteBuffer buffer) {
+        return buffer.capacity() == this.bufferCapacity;
+    }
+
+    @Override
+    protected void resetObject(ByteBuffer buffer) {
+        buffer.clear();
+    }
+}
@@ -1,44 +1,371 @@
 package io.github.booster.commons.pool;
 
 import arrow.core.Option;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import io.github.booster.commons.metrics.BoundCounter;
+import io.github.booster.commons.metrics.BoundTimer;
+import io.github.booster.commons.metrics.MetricsRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Object pool that allows objects to be retrieved by names.
+ * Lookups of cached objects are lock free, objects are created
+ * at most once per name, under a lock specific to that name. The lock
+ * is a {@link ReentrantLock} rather than a monitor, so virtual threads
+ * creating or waiting for an object never pin their carrier thread.
+ * Pools can be bounded by {@link NamedObjectPoolSetting}, in which case
+ * evicted objects are passed to {@link #onEviction(String, Object)}.
+ * {@link #getAsync(String)} creates missing objects on an executor, sharing
+ * one creation between concurrent requests for the same name. Cached objects
+ * can be rebuilt in place by {@link #refresh(String)}, readers keep getting
+ * the previous object until the new one replaces it.
  */
 public abstract class NamedObjectPool<T> {
 
+    /**
+     * Counter of lookups that found a cached object.
+     */
+    public static final String HITS = "named.object.pool.hits";
+
+    /**
+     * Counter of lookups that had to create an object.
+     */
+    public static final String MISSES = "named.object.pool.misses";
+
+    /**
+     * Counter of objects evicted because of size or expiry.
+     */
+    public static final String EVICTIONS = "named.object.pool.evictions";
+
+    /**
+     * Timer of {@link #warmUp(Collection)} duration.
+     */
+    public static final String WARM_UP = "named.object.pool.warmup";
+
     private static final Logger LOG = LoggerFactory.getLogger(NamedObjectPool.class);
 
-    private final Map<String, T> cachedObjects = new HashMap<>();
+    private final NamedObjectPoolSetting setting;
+
+    private final ConcurrentMap<String, T> cachedObjects;
+
+    private final ConcurrentMap<String, CreationLock> creationLocks = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, CompletableFuture<T>> pendingObjects = new ConcurrentHashMap<>();
+
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile Executor creationExecutor = ForkJoinPool.commonPool();
+
+    private volatile BoundCounter hits = BoundCounter.NOOP;
+
+    private volatile BoundCounter misses = BoundCounter.NOOP;
+
+    private volatile BoundCounter evictions = BoundCounter.NOOP;
+
+    private volatile BoundTimer warmUpTimer = BoundTimer.NOOP;
+
+    /**
+     * Creates an unbounded pool.
+     */
+    public NamedObjectPool() {
+        this(null);
+    }
+
+    /**
+     * Creates a pool, bounded if setting has any bound.
+     * @param setting {@link NamedObjectPoolSetting}, unbounded if null.
+     */
+    public NamedObjectPool(NamedObjectPoolSetting setting) {
+        this.setting = setting == null ? new NamedObjectPoolSetting() : setting;
+        this.cachedObjects = this.setting.isBounded() ?
+                this.createBoundedMap() :
+                new ConcurrentHashMap<>();
+    }
+
+    private ConcurrentMap<String, T> createBoundedMap() {
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder();
+        if (this.setting.getMaxSize() > 0) {
+            builder.maximumSize(this.setting.getMaxSize());
+        }
+        if (this.setting.getExpireAfterAccessMillis() > 0) {
+            builder.expireAfterAccess(this.setting.getExpireAfterAccessMillis(), TimeUnit.MILLISECONDS);
+        }
+        if (this.setting.getExpireAfterWriteMillis() > 0) {
+            builder.expireAfterWrite(this.setting.getExpireAfterWriteMillis(), TimeUnit.MILLISECONDS);
+        }
+        return builder.<String, T>removalListener(this::removed).build().asMap();
+    }
+
+    private void removed(RemovalNotification<String, T> notification) {
+        if (notification.wasEvicted()) {
+            LOG.debug("booster-commons - named object: [{}] evicted, cause: {}", notification.getKey(), notification.getCause());
+            this.evictions.increment();
+            this.onEviction(notification.getKey(), notification.getValue());
+        }
+    }
+
+    /**
+     * Reports hits, misses and evictions of this pool, tagged with pool name.
+     * @param registry {@link MetricsRegistry} to report to, no metrics if null.
+     */
+    public void setMetricsRegistry(MetricsRegistry registry) {
+        if (registry == null) {
+            this.hits = BoundCounter.NOOP;
+            this.misses = BoundCounter.NOOP;
+            this.evictions = BoundCounter.NOOP;
+            this.warmUpTimer = BoundTimer.NOOP;
+        } else {
+            this.hits = registry.counter(HITS, "name", this.setting.getName());
+            this.misses = registry.counter(MISSES, "name", this.setting.getName());
+            this.evictions = registry.counter(EVICTIONS, "name", this.setting.getName());
+            this.warmUpTimer = registry.timer(WARM_UP, "name", this.setting.getName());
+        }
+    }
+
+    /**
+     * Executor used by {@link #getAsync(String)} to create missing objects.
+     * @param creationExecutor {@link Executor}, common {@link ForkJoinPool} if null.
+     */
+    public void setCreationExecutor(Executor creationExecutor) {
+        this.creationExecutor = creationExecutor == null ? ForkJoinPool.commonPool() : creationExecutor;
+    }
 
     abstract protected T createObject(String name);
 
+    /**
+     * Called when a bounded pool evicts an object, on the thread that triggered
+     * the eviction. Closes {@link AutoCloseable} objects by default.
+     * @param name name of the evicted object.
+     * @param obj evicted object.
+     */
+    protected void onEviction(String name, T obj) {
+        if (obj instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) obj).close();
+            } catch (Exception e) {
+                LOG.warn("booster-commons - error closing evicted object: [{}]", name, e);
+            }
+        }
+    }
+
     public Option<T> getOption(String name) {
-        LOG.debug("booster-commons - get optional for: [{}]", name);
         return Option.fromNullable(this.get(name));
     }
 
     public T get(String name) {
-        synchronized(this.cachedObjects) {
-            LOG.debug("booster-commons - get object for: [{}]", name);
-            if (this.cachedObjects.containsKey(name)) {
-                LOG.debug("booster-commons - named object: [{}] exists in cache", name);
-                return this.cachedObjects.get(name);
-            } else {
-                LOG.debug("booster-commons - creating named object: [{}]", name);
-                T obj = this.createObject(name);
-                if (obj != null) {
-                    LOG.debug("booster-commons - named object: [{}] created", name);
-                    this.cachedObjects.put(name, obj);
+        if (name == null) {
+            return this.createObject(null);
+        }
+        T obj = this.cachedObjects.get(name);
+        if (obj == null) {
+            this.misses.increment();
+            return this.create(name);
+        }
+        this.hits.increment();
+        return obj;
+    }
+
+    /**
+     * Looks up an object without blocking the caller. Cached objects are
+     * returned as completed futures, missing objects are created on the
+     * creation executor, and concurrent requests for the same name share
+     * the same creation. Futures are forgotten once complete, so a failed
+     * creation is attempted again on the next lookup.
+     * @param name name of the object.
+     * @return future of the object, completed with null if it could not be created.
+     */
+    public CompletableFuture<T> getAsync(String name) {
+        T obj = name == null ? null : this.cachedObjects.get(name);
+        if (obj != null) {
+            this.hits.increment();
+            return CompletableFuture.completedFuture(obj);
+        }
+        if (name == null) {
+            return CompletableFuture.supplyAsync(() -> this.createObject(null), this.creationExecutor);
+        }
+
+        CompletableFuture<T> pending = this.pendingObjects.get(name);
+        if (pending == null) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            pending = this.pendingObjects.putIfAbsent(name, future);
+            if (pending == null) {
+                this.misses.increment();
+                this.createAsync(name, future);
+                pending = future;
+            }
+        }
+        return pending.copy();
+    }
+
+    /**
+     * Creates objects ahead of their first lookup, in parallel on the creation
+     * executor. Duration is recorded as {@link #WARM_UP} timer.
+     * @param names names of objects to create.
+     * @return future completed with warm-up duration once all objects are
+     *         created, or exceptionally if any creation failed.
+     */
+    public CompletableFuture<Duration> warmUp(Collection<String> names) {
+        long start = System.nanoTime();
+        CompletableFuture<?>[] futures = names.stream()
+                .map(this::getAsync)
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(futures).thenApply(ignored -> {
+            long elapsed = System.nanoTime() - start;
+            this.warmUpTimer.record(elapsed);
+            LOG.debug("booster-commons - warmed up {} named objects in {} ms", futures.length, elapsed / 1000000);
+            return Duration.ofNanos(elapsed);
+        });
+    }
+
+    private void createAsync(String name, CompletableFuture<T> future) {
+        try {
+            this.creationExecutor.execute(() -> {
+                try {
+                    T obj = this.create(name);
+                    this.pendingObjects.remove(name, future);
+                    future.complete(obj);
+                } catch (Throwable t) {
+                    this.pendingObjects.remove(name, future);
+                    future.completeExceptionally(t);
                 }
-                LOG.debug("booster-commons - named object: [{}] not created", name);
+            });
+        } catch (RejectedExecutionException e) {
+            this.pendingObjects.remove(name, future);
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Number of setting reloads applied to this pool.
+     * @return reload version.
+     */
+    public long getVersion() {
+        return this.version.get();
+    }
+
+    /**
+     * Rebuilds a cached object by {@link #recreateObject(String, Object)}, under
+     * the lock of its name. Lookups are not blocked and return the previous object
+     * until it is replaced. Objects not cached are left to be created on lookup.
+     * @param name name of the object.
+     */
+    protected void refresh(String name) {
+        CreationLock lock = this.lockCreation(name);
+        try {
+            T previous = this.cachedObjects.get(name);
+            if (previous == null) {
+                return;
+            }
+            LOG.debug("booster-commons - refreshing named object: [{}]", name);
+            T obj = this.recreateObject(name, previous);
+            if (obj == null) {
+                this.cachedObjects.remove(name, previous);
+            } else {
+                this.cachedObjects.put(name, obj);
+            }
+        } finally {
+            this.unlockCreation(name, lock);
+        }
+    }
+
+    /**
+     * Creates an object replacing a cached one, called by {@link #refresh(String)}.
+     * Subclasses can carry state over, or release resources of the previous object.
+     * @param name name of the object.
+     * @param previous object currently cached.
+     * @return new object, null to remove the cached object.
+     */
+    protected T recreateObject(String name, T previous) {
+        return this.createObject(name);
+    }
+
+    /**
+     * Applies a settings change, refreshing objects whose setting was added,
+     * removed or is no longer equal, and increments reload version.
+     * @param previous settings before the change, nothing is refreshed if null.
+     * @param current settings after the change.
+     * @param <S> type of settings.
+     */
+    protected <S> void reload(Map<String, S> previous, Map<String, S> current) {
+        long reloadVersion = this.version.incrementAndGet();
+        if (previous == null) {
+            return;
+        }
+        Set<String> names = new HashSet<>(previous.keySet());
+        names.addAll(current.keySet());
+        int refreshed = 0;
+        for (String name : names) {
+            if (!Objects.equals(previous.get(name), current.get(name))) {
+                this.refresh(name);
+                refreshed++;
+            }
+        }
+        LOG.debug("booster-commons - reload version {} refreshed {} named objects", reloadVersion, refreshed);
+    }
+
+    private T create(String name) {
+        CreationLock lock = this.lockCreation(name);
+        try {
+            T obj = this.cachedObjects.get(name);
+            if (obj != null) {
                 return obj;
             }
+            LOG.debug("booster-commons - creating named object: [{}]", name);
+            obj = this.createObject(name);
+            if (obj != null) {
+                LOG.debug("booster-commons - named object: [{}] created", name);
+                this.cachedObjects.put(name, obj);
+            } else {
+                LOG.debug("booster-commons - named object: [{}] not created", name);
+            }
+            return obj;
+        } finally {
+            this.unlockCreation(name, lock);
         }
     }
+
+    private CreationLock lockCreation(String name) {
+        CreationLock lock = this.creationLocks.compute(name, (key, current) -> {
+            CreationLock acquired = current == null ? new CreationLock() : current;
+            acquired.users++;
+            return acquired;
+        });
+        lock.lock.lock();
+        return lock;
+    }
+
+    private void unlockCreation(String name, CreationLock lock) {
+        lock.lock.unlock();
+        // removed once no thread holds or waits for it, so a name never has two locks.
+        this.creationLocks.computeIfPresent(name, (key, current) -> --current.users == 0 ? null : current);
+    }
+
+    /**
+     * Lock of one name, counting threads holding or waiting for it.
+     * Users are only counted inside map computations of the name.
+     */
+    private static class CreationLock {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private int users;
+    }
 }
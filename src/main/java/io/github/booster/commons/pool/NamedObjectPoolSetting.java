@@ -0,0 +1,90 @@
+package io.github.booster.commons.pool;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Bounds for {@link NamedObjectPool}. A pool without any bound keeps
+ * objects forever, bounded pools evict least recently used objects
+ * beyond maximum size, and objects that expire.
+ */
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class NamedObjectPoolSetting {
+
+    /**
+     * Default pool name used in metrics tags.
+     */
+    public static final String DEFAULT_NAME = "named-object-pool";
+
+    private String name;
+
+    private int maxSize;
+
+    private long expireAfterAccessMillis;
+
+    private long expireAfterWriteMillis;
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Name of the pool, used as name tag for pool metrics.
+     * @return pool name.
+     */
+    public String getName() {
+        return StringUtils.isBlank(this.name) ? DEFAULT_NAME : this.name;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = Math.max(maxSize, 0);
+    }
+
+    /**
+     * Maximum number of objects kept in the pool.
+     * @return maximum size, 0 if unbounded.
+     */
+    public int getMaxSize() {
+        return Math.max(this.maxSize, 0);
+    }
+
+    public void setExpireAfterAccessMillis(long expireAfterAccessMillis) {
+        this.expireAfterAccessMillis = Math.max(expireAfterAccessMillis, 0);
+    }
+
+    /**
+     * Time after last lookup when an object is evicted.
+     * @return time in milliseconds, 0 if objects never expire after access.
+     */
+    public long getExpireAfterAccessMillis() {
+        return Math.max(this.expireAfterAccessMillis, 0);
+    }
+
+    public void setExpireAfterWriteMillis(long expireAfterWriteMillis) {
+        this.expireAfterWriteMillis = Math.max(expireAfterWriteMillis, 0);
+    }
+
+    /**
+     * Time after creation when an object is evicted.
+     * @return time in milliseconds, 0 if objects never expire after creation.
+     */
+    public long getExpireAfterWriteMillis() {
+        return Math.max(this.expireAfterWriteMillis, 0);
+    }
+
+    /**
+     * Whether objects are ever evicted.
+     * @return true if any bound is set.
+     */
+    public boolean isBounded() {
+        return this.getMaxSize() > 0 ||
+                this.getExpireAfterAccessMillis() > 0 ||
+                this.getExpireAfterWriteMillis() > 0;
+    }
+}
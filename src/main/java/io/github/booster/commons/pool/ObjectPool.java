@@ -0,0 +1,334 @@
+package io.github.booster.commons.pool;
+
+import arrow.core.Option;
+import io.github.booster.commons.metrics.BoundCounter;
+import io.github.booster.commons.metrics.BoundTimer;
+import io.github.booster.commons.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of objects that cannot be shared between threads, which are borrowed
+ * for exclusive use and released afterwards. Idle objects are kept in striped
+ * free lists, a thread first looks at the list of its stripe, most recently
+ * released first, then steals from other stripes, so threads rarely contend.
+ * Borrowing fails rather than waits once maximum size is reached.
+ */
+public abstract class ObjectPool<T> implements AutoCloseable {
+
+    /**
+     * Timer of borrow latency.
+     */
+    public static final String BORROW = "object.pool.borrow";
+
+    /**
+     * Counter of borrows that failed because pool reached maximum size.
+     */
+    public static final String EXHAUSTED = "object.pool.exhausted";
+
+    /**
+     * Gauge of borrowed objects.
+     */
+    public static final String ACTIVE = "object.pool.active";
+
+    /**
+     * Gauge of idle objects.
+     */
+    public static final String IDLE = "object.pool.idle";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ObjectPool.class);
+
+    private static final class IdleObject<T> {
+
+        private final T obj;
+
+        private final long idleSince;
+
+        private IdleObject(T obj, long idleSince) {
+            this.obj = obj;
+            this.idleSince = idleSince;
+        }
+    }
+
+    private final ObjectPoolSetting setting;
+
+    private final List<ConcurrentLinkedDeque<IdleObject<T>>> stripes;
+
+    private final int stripeMask;
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final AtomicInteger idle = new AtomicInteger();
+
+    private final ScheduledExecutorService evictor;
+
+    private volatile boolean closed;
+
+    private volatile BoundTimer borrowTimer = BoundTimer.NOOP;
+
+    private volatile BoundCounter exhausted = BoundCounter.NOOP;
+
+    /**
+     * Creates a pool with default setting.
+     */
+    public ObjectPool() {
+        this(null);
+    }
+
+    /**
+     * Creates a pool, with a background evictor if eviction interval is set.
+     * @param setting {@link ObjectPoolSetting}, default if null.
+     */
+    public ObjectPool(ObjectPoolSetting setting) {
+        this.setting = setting == null ? new ObjectPoolSetting() : setting;
+        int stripeCount = Integer.highestOneBit(Math.max(Runtime.getRuntime().availableProcessors() * 2 - 1, 1));
+        List<ConcurrentLinkedDeque<IdleObject<T>>> stripeList = new ArrayList<>(stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            stripeList.add(new ConcurrentLinkedDeque<>());
+        }
+        this.stripes = List.copyOf(stripeList);
+        this.stripeMask = stripeCount - 1;
+
+        long intervalMillis = this.setting.getEvictionIntervalMillis();
+        if (intervalMillis > 0) {
+            this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "booster-object-pool-evictor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.evictor.scheduleWithFixedDelay(this::evict, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.evictor = null;
+        }
+    }
+
+    /**
+     * Reports borrow latency as {@link #BORROW} timer, failed borrows as {@link #EXHAUSTED}
+     * counter, and {@link #ACTIVE} and {@link #IDLE} gauges, all tagged with pool name.
+     * @param registry {@link MetricsRegistry} to report to, no metrics if null.
+     */
+    public void setMetricsRegistry(MetricsRegistry registry) {
+        if (registry == null) {
+            this.borrowTimer = BoundTimer.NOOP;
+            this.exhausted = BoundCounter.NOOP;
+        } else {
+            String name = this.setting.getName();
+            this.borrowTimer = registry.timer(BORROW, "name", name);
+            this.exhausted = registry.counter(EXHAUSTED, "name", name);
+            registry.gauge(ACTIVE, this, ObjectPool::getActiveCount, "name", name);
+            registry.gauge(IDLE, this, ObjectPool::getIdleCount, "name", name);
+        }
+    }
+
+    /**
+     * Creates a new object.
+     * @return new object, null if it cannot be created.
+     */
+    abstract protected T createObject();
+
+    /**
+     * Checks an idle object before it is borrowed. Invalid objects are destroyed.
+     * @param obj idle object.
+     * @return true if the object can be borrowed.
+     */
+    protected boolean validateObject(T obj) {
+        return true;
+    }
+
+    /**
+     * Resets state of a released object before it becomes idle.
+     * @param obj released object.
+     */
+    protected void resetObject(T obj) {
+    }
+
+    /**
+     * Releases resources of an object removed from the pool.
+     * Closes {@link AutoCloseable} objects by default.
+     * @param obj object removed from the pool.
+     */
+    protected void destroyObject(T obj) {
+        if (obj instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) obj).close();
+            } catch (Exception e) {
+                LOG.warn("booster-commons - error closing pooled object in: [{}]", this.setting.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Borrows an idle object, or creates one if pool is below maximum size.
+     * Borrowed objects must be returned by {@link #release(Object)}.
+     * @return borrowed object, empty if pool is exhausted or closed.
+     */
+    public Option<T> borrow() {
+        BoundTimer timer = this.borrowTimer;
+        long start = timer == BoundTimer.NOOP ? 0L : System.nanoTime();
+        T obj = this.closed ? null : this.borrowObject();
+        if (timer != BoundTimer.NOOP) {
+            timer.record(System.nanoTime() - start);
+        }
+        return Option.fromNullable(obj);
+    }
+
+    private T borrowObject() {
+        IdleObject<T> idleObject;
+        while ((idleObject = this.pollIdle()) != null) {
+            if (this.validateObject(idleObject.obj)) {
+                return idleObject.obj;
+            }
+            LOG.debug("booster-commons - invalid object destroyed in: [{}]", this.setting.getName());
+            this.destroy(idleObject.obj);
+        }
+        if (!this.reserve()) {
+            this.exhausted.increment();
+            return null;
+        }
+        return this.create();
+    }
+
+    private IdleObject<T> pollIdle() {
+        int home = this.stripe();
+        for (int i = 0; i <= this.stripeMask; i++) {
+            IdleObject<T> idleObject = this.stripes.get((home + i) & this.stripeMask).pollFirst();
+            if (idleObject != null) {
+                this.idle.decrementAndGet();
+                return idleObject;
+            }
+        }
+        return null;
+    }
+
+    private boolean reserve() {
+        int current;
+        do {
+            current = this.size.get();
+            if (current >= this.setting.getMaxSize()) {
+                return false;
+            }
+        } while (!this.size.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private T create() {
+        try {
+            T obj = this.createObject();
+            if (obj == null) {
+                this.size.decrementAndGet();
+            }
+            return obj;
+        } catch (RuntimeException e) {
+            this.size.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void destroy(T obj) {
+        this.size.decrementAndGet();
+        this.destroyObject(obj);
+    }
+
+    private int stripe() {
+        return (int) Thread.currentThread().getId() & this.stripeMask;
+    }
+
+    /**
+     * Returns a borrowed object to the pool. Objects released after
+     * the pool is closed are destroyed.
+     * @param obj object borrowed from this pool.
+     */
+    public void release(T obj) {
+        if (obj == null) {
+            return;
+        }
+        if (this.closed) {
+            this.destroy(obj);
+            return;
+        }
+        this.resetObject(obj);
+        this.idle.incrementAndGet();
+        ConcurrentLinkedDeque<IdleObject<T>> stripe = this.stripes.get(this.stripe());
+        IdleObject<T> idleObject = new IdleObject<>(obj, System.nanoTime());
+        stripe.offerFirst(idleObject);
+        // close may have drained this stripe before the object was pushed.
+        if (this.closed && stripe.remove(idleObject)) {
+            this.idle.decrementAndGet();
+            this.destroy(obj);
+        }
+    }
+
+    /**
+     * Destroys objects idle for longer than maximum idle time, keeping
+     * minimum idle objects, then creates objects up to minimum idle.
+     * Runs periodically if eviction interval is set.
+     */
+    public void evict() {
+        try {
+            long maxIdleNanos = TimeUnit.MILLISECONDS.toNanos(this.setting.getMaxIdleMillis());
+            if (maxIdleNanos > 0) {
+                long now = System.nanoTime();
+                for (ConcurrentLinkedDeque<IdleObject<T>> stripe : this.stripes) {
+                    for (IdleObject<T> idleObject : stripe) {
+                        if (this.idle.get() <= this.setting.getMinIdle()) {
+                            break;
+                        }
+                        if (now - idleObject.idleSince > maxIdleNanos && stripe.remove(idleObject)) {
+                            this.idle.decrementAndGet();
+                            this.destroy(idleObject.obj);
+                        }
+                    }
+                }
+            }
+            while (!this.closed && this.idle.get() < this.setting.getMinIdle() && this.reserve()) {
+                T obj = this.create();
+                if (obj == null) {
+                    break;
+                }
+                this.release(obj);
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("booster-commons - failed to evict idle objects in: [{}]", this.setting.getName(), e);
+        }
+    }
+
+    /**
+     * Number of borrowed objects.
+     * @return borrowed objects.
+     */
+    public int getActiveCount() {
+        return Math.max(this.size.get() - this.idle.get(), 0);
+    }
+
+    /**
+     * Number of idle objects.
+     * @return idle objects.
+     */
+    public int getIdleCount() {
+        return this.idle.get();
+    }
+
+    /**
+     * Stops eviction and destroys idle objects. Borrowed
+     * objects are destroyed when released.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        if (this.evictor != null) {
+            this.evictor.shutdown();
+        }
+        IdleObject<T> idleObject;
+        while ((idleObject = this.pollIdle()) != null) {
+            this.destroy(idleObject.obj);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.booster.commons.pool;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Sizing and eviction setting for {@link ObjectPool}.
+ */
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class ObjectPoolSetting {
+
+    /**
+     * Default pool name used in metrics tags.
+     */
+    public static final String DEFAULT_NAME = "object-pool";
+
+    /**
+     * Default maximum number of objects, borrowed and idle.
+     */
+    public static final int DEFAULT_MAX_SIZE = 8;
+
+    private String name;
+
+    private int minIdle;
+
+    private int maxSize;
+
+    private long maxIdleMillis;
+
+    private long evictionIntervalMillis;
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Name of the pool, used as name tag for pool metrics.
+     * @return pool name.
+     */
+    public String getName() {
+        return StringUtils.isBlank(this.name) ? DEFAULT_NAME : this.name;
+    }
+
+    public void setMinIdle(int minIdle) {
+        this.minIdle = Math.max(minIdle, 0);
+    }
+
+    /**
+     * Number of idle objects kept by eviction, created if missing.
+     * @return minimum idle objects, never more than maximum size.
+     */
+    public int getMinIdle() {
+        return Math.min(Math.max(this.minIdle, 0), this.getMaxSize());
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize <= 0 ? DEFAULT_MAX_SIZE : maxSize;
+    }
+
+    /**
+     * Maximum number of objects, borrowed and idle. Borrowing fails beyond it.
+     * @return maximum size.
+     */
+    public int getMaxSize() {
+        return this.maxSize <= 0 ? DEFAULT_MAX_SIZE : this.maxSize;
+    }
+
+    public void setMaxIdleMillis(long maxIdleMillis) {
+        this.maxIdleMillis = Math.max(maxIdleMillis, 0);
+    }
+
+    /**
+     * Time an object can stay idle before eviction destroys it.
+     * @return time in milliseconds, 0 if idle objects are never evicted.
+     */
+    public long getMaxIdleMillis() {
+        return Math.max(this.maxIdleMillis, 0);
+    }
+
+    public void setEvictionIntervalMillis(long evictionIntervalMillis) {
+        this.evictionIntervalMillis = Math.max(evictionIntervalMillis, 0);
+    }
+
+    /**
+     * Interval of background eviction.
+     * @return interval in milliseconds, 0 if eviction only runs when called.
+     */
+    public long getEvictionIntervalMillis() {
+        return Math.max(this.evictionIntervalMillis, 0);
+    }
+}
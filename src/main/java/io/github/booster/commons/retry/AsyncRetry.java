@@ -0,0 +1,392 @@
+package io.github.booster.commons.retry;
+
+import arrow.core.Option;
+import com.google.common.base.Preconditions;
+import io.github.resilience4j.core.IntervalBiFunction;
+import io.github.resilience4j.core.functions.Either;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.github.resilience4j.retry.Retry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Retries asynchronous calls without blocking a thread during backoff. Reactor
+ * publishers are retried by resilience4j {@link RetryOperator}, which waits on
+ * Reactor timers. {@link CompletionStage}s are retried by scheduling each attempt
+ * on a shared scheduler. Retries come from {@link RetryConfig} or
+ * {@link RetrySetting#buildRetry(String)}, calls are not retried if retry is empty.
+ * With a {@link Deadline}, each attempt times out when the deadline passes, and
+ * retry stops when the time left cannot cover backoff plus the average latency
+ * of attempts so far.
+ */
+public final class AsyncRetry {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncRetry.class);
+
+    private static final class SchedulerHolder {
+
+        private static final ScheduledExecutorService SCHEDULER = Executors.newScheduledThreadPool(
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "booster-retry-scheduler");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+    }
+
+    private AsyncRetry() {
+    }
+
+    /**
+     * Shared scheduler used to schedule {@link CompletionStage} retries.
+     * @return shared {@link ScheduledExecutorService}
+     */
+    public static ScheduledExecutorService getScheduler() {
+        return SchedulerHolder.SCHEDULER;
+    }
+
+    /**
+     * Retries a {@link Mono} on error, resubscribing after backoff.
+     * @param mono {@link Mono} to retry.
+     * @param retry optional {@link Retry}
+     * @param <T> type of value.
+     * @return retried {@link Mono}, the same {@link Mono} if retry is empty.
+     */
+    public static <T> Mono<T> retry(Mono<T> mono, Option<Retry> retry) {
+        Preconditions.checkArgument(mono != null, "mono cannot be null");
+        Retry resilienceRetry = retry == null ? null : retry.orNull();
+        return resilienceRetry == null ? mono : mono.transformDeferred(RetryOperator.of(resilienceRetry));
+    }
+
+    /**
+     * Retries a {@link Flux} on error, resubscribing after backoff.
+     * @param flux {@link Flux} to retry.
+     * @param retry optional {@link Retry}
+     * @param <T> type of values.
+     * @return retried {@link Flux}, the same {@link Flux} if retry is empty.
+     */
+    public static <T> Flux<T> retry(Flux<T> flux, Option<Retry> retry) {
+        Preconditions.checkArgument(flux != null, "flux cannot be null");
+        Retry resilienceRetry = retry == null ? null : retry.orNull();
+        return resilienceRetry == null ? flux : flux.transformDeferred(RetryOperator.of(resilienceRetry));
+    }
+
+    /**
+     * Decorates an asynchronous call so that it is called again after backoff
+     * when it fails, with backoff scheduled on the shared scheduler.
+     * @param supplier supplier starting the call.
+     * @param retry optional {@link Retry}
+     * @param <T> type of value.
+     * @return decorated supplier, the same supplier if retry is empty.
+     */
+    public static <T> Supplier<CompletionStage<T>> decorateCompletionStage(
+            Supplier<CompletionStage<T>> supplier,
+            Option<Retry> retry
+    ) {
+        return decorateCompletionStage(supplier, retry, getScheduler());
+    }
+
+    /**
+     * Decorates an asynchronous call so that it is called again after backoff
+     * when it fails, with backoff scheduled on the given scheduler.
+     * @param supplier supplier starting the call.
+     * @param retry optional {@link Retry}
+     * @param scheduler {@link ScheduledExecutorService} scheduling attempts after backoff.
+     * @param <T> type of value.
+     * @return decorated supplier, the same supplier if retry is empty.
+     */
+    public static <T> Supplier<CompletionStage<T>> decorateCompletionStage(
+            Supplier<CompletionStage<T>> supplier,
+            Option<Retry> retry,
+            ScheduledExecutorService scheduler
+    ) {
+        Preconditions.checkArgument(supplier != null, "supplier cannot be null");
+        Preconditions.checkArgument(scheduler != null, "scheduler cannot be null");
+        Retry resilienceRetry = retry == null ? null : retry.orNull();
+        return resilienceRetry == null ?
+                supplier :
+                Retry.decorateCompletionStage(resilienceRetry, scheduler, supplier);
+    }
+
+    /**
+     * Starts an asynchronous call, calling it again after backoff when it fails.
+     * @param supplier supplier starting the call.
+     * @param retry optional {@link Retry}
+     * @param <T> type of value.
+     * @return {@link CompletionStage} of the last attempt.
+     */
+    public static <T> CompletionStage<T> executeCompletionStage(
+            Supplier<CompletionStage<T>> supplier,
+            Option<Retry> retry
+    ) {
+        return decorateCompletionStage(supplier, retry).get();
+    }
+
+    /**
+     * Retries a {@link Mono} on error within a deadline. Without an explicit
+     * deadline, the one carried in subscriber context is used, and the
+     * {@link Mono} is retried without deadline if there is none.
+     * @param mono {@link Mono} to retry.
+     * @param retry optional {@link Retry}
+     * @param deadline optional {@link Deadline}
+     * @param <T> type of value.
+     * @return retried {@link Mono}, failing with {@link TimeoutException} if deadline passes.
+     */
+    public static <T> Mono<T> retry(Mono<T> mono, Option<Retry> retry, Option<Deadline> deadline) {
+        Preconditions.checkArgument(mono != null, "mono cannot be null");
+        Retry resilienceRetry = retry == null ? null : retry.orNull();
+        return Mono.deferContextual(context -> {
+            Deadline callDeadline = deadline == null || deadline.isEmpty() ?
+                    Deadline.fromContext(context).orNull() :
+                    deadline.orNull();
+            if (callDeadline == null) {
+                return retry(mono, retry);
+            }
+            return attempt(
+                    mono,
+                    resilienceRetry,
+                    resilienceRetry == null ? null : resilienceRetry.<T>asyncContext(),
+                    callDeadline,
+                    0L,
+                    0
+            );
+        });
+    }
+
+    /**
+     * Starts an asynchronous call within a deadline, calling it again after backoff
+     * when it fails and time is left. Without an explicit deadline, the one bound
+     * to the current thread is used, and the call is retried without deadline if
+     * there is none.
+     * @param supplier supplier starting the call.
+     * @param retry optional {@link Retry}
+     * @param deadline optional {@link Deadline}
+     * @param <T> type of value.
+     * @return {@link CompletionStage} of the last attempt, failing with
+     *         {@link TimeoutException} if deadline passes.
+     */
+    public static <T> CompletionStage<T> executeCompletionStage(
+            Supplier<CompletionStage<T>> supplier,
+            Option<Retry> retry,
+            Option<Deadline> deadline
+    ) {
+        return executeCompletionStage(supplier, retry, deadline, getScheduler());
+    }
+
+    /**
+     * Starts an asynchronous call within a deadline, with backoff scheduled
+     * on the given scheduler.
+     * @param supplier supplier starting the call.
+     * @param retry optional {@link Retry}
+     * @param deadline optional {@link Deadline}
+     * @param scheduler {@link ScheduledExecutorService} scheduling attempts after backoff.
+     * @param <T> type of value.
+     * @return {@link CompletionStage} of the last attempt, failing with
+     *         {@link TimeoutException} if deadline passes.
+     */
+    public static <T> CompletionStage<T> executeCompletionStage(
+            Supplier<CompletionStage<T>> supplier,
+            Option<Retry> retry,
+            Option<Deadline> deadline,
+            ScheduledExecutorService scheduler
+    ) {
+        Preconditions.checkArgument(supplier != null, "supplier cannot be null");
+        Preconditions.checkArgument(scheduler != null, "scheduler cannot be null");
+        Deadline callDeadline = deadline == null || deadline.isEmpty() ?
+                Deadline.current().orNull() :
+                deadline.orNull();
+        if (callDeadline == null) {
+            return decorateCompletionStage(supplier, retry, scheduler).get();
+        }
+        Retry resilienceRetry = retry == null ? null : retry.orNull();
+        CompletableFuture<T> promise = new CompletableFuture<>();
+        attempt(
+                supplier,
+                resilienceRetry,
+                resilienceRetry == null ? null : resilienceRetry.<T>asyncContext(),
+                callDeadline,
+                scheduler,
+                promise,
+                0L,
+                0
+        );
+        return promise;
+    }
+
+    private static <T> Mono<T> attempt(
+            Mono<T> mono,
+            Retry retry,
+            Retry.AsyncContext<T> context,
+            Deadline deadline,
+            long totalLatencyNanos,
+            int attempts
+    ) {
+        return Mono.defer(() -> {
+            long remainingNanos = deadline.getRemainingNanos();
+            if (remainingNanos <= 0) {
+                TimeoutException timeout = new TimeoutException("deadline exceeded");
+                if (context != null && attempts > 0) {
+                    stop(context, timeout);
+                }
+                return Mono.error(timeout);
+            }
+            Mono<T> timed = mono.timeout(Duration.ofNanos(remainingNanos));
+            if (context == null) {
+                return timed;
+            }
+            long start = System.nanoTime();
+            return timed.materialize()
+                    .flatMap(signal -> {
+                        long latencyNanos = totalLatencyNanos + System.nanoTime() - start;
+                        if (!signal.isOnError() && !signal.hasValue()) {
+                            context.onComplete();
+                            return Mono.empty();
+                        }
+                        T value = signal.get();
+                        Throwable error = signal.getThrowable();
+                        long delay = nextDelay(retry, context, deadline, attempts, latencyNanos, value, error);
+                        if (delay < 1) {
+                            return error == null ? Mono.just(value) : Mono.error(error);
+                        }
+                        return Mono.delay(Duration.ofMillis(delay))
+                                .then(attempt(mono, retry, context, deadline, latencyNanos, attempts + 1));
+                    });
+        });
+    }
+
+    private static <T> void attempt(
+            Supplier<CompletionStage<T>> supplier,
+            Retry retry,
+            Retry.AsyncContext<T> context,
+            Deadline deadline,
+            ScheduledExecutorService scheduler,
+            CompletableFuture<T> promise,
+            long totalLatencyNanos,
+            int attempts
+    ) {
+        long remainingNanos = deadline.getRemainingNanos();
+        if (remainingNanos <= 0) {
+            TimeoutException timeout = new TimeoutException("deadline exceeded");
+            if (context != null && attempts > 0) {
+                stop(context, timeout);
+            }
+            promise.completeExceptionally(timeout);
+            return;
+        }
+        long start = System.nanoTime();
+        CompletableFuture<T> stage;
+        try {
+            stage = supplier.get().toCompletableFuture();
+        } catch (Throwable t) {
+            stage = CompletableFuture.failedFuture(t);
+        }
+        CompletableFuture<T> call = stage;
+        call.copy().orTimeout(remainingNanos, TimeUnit.NANOSECONDS).whenComplete((value, error) -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ?
+                    error.getCause() :
+                    error;
+            try {
+                if (cause instanceof TimeoutException) {
+                    call.cancel(true);
+                }
+                if (context == null) {
+                    complete(promise, value, cause);
+                    return;
+                }
+                long latencyNanos = totalLatencyNanos + System.nanoTime() - start;
+                long delay = nextDelay(retry, context, deadline, attempts, latencyNanos, value, cause);
+                if (delay < 1) {
+                    complete(promise, value, cause);
+                    return;
+                }
+                scheduler.schedule(
+                        () -> {
+                            try {
+                                attempt(supplier, retry, context, deadline, scheduler, promise, latencyNanos, attempts + 1);
+                            } catch (Throwable t) {
+                                promise.completeExceptionally(t);
+                            }
+                        },
+                        delay,
+                        TimeUnit.MILLISECONDS
+                );
+            } catch (Throwable t) {
+                if (cause != null && cause != t) {
+                    t.addSuppressed(cause);
+                }
+                promise.completeExceptionally(t);
+            }
+        });
+    }
+
+    /**
+     * Decides whether to retry after an attempt. The deadline is checked with the
+     * backoff of the next attempt before the retry context is consulted, so that a
+     * retry stopped by the deadline neither counts as a retry nor withdraws from a
+     * {@link RetryBudget}. The outcome is recorded in the context whenever retry stops.
+     * @return backoff in milliseconds, less than 1 to stop.
+     */
+    private static <T> long nextDelay(
+            Retry retry,
+            Retry.AsyncContext<T> context,
+            Deadline deadline,
+            int attempts,
+            long latencyNanos,
+            T value,
+            Throwable error
+    ) {
+        IntervalBiFunction<T> intervalFunction = retry.getRetryConfig().getIntervalBiFunction();
+        long backOff = intervalFunction.apply(
+                attempts + 1,
+                error == null ? Either.right(value) : Either.left(error)
+        );
+        long expectedLatencyNanos = latencyNanos / (attempts + 1);
+        if (deadline.getRemainingNanos() < TimeUnit.MILLISECONDS.toNanos(backOff) + expectedLatencyNanos) {
+            stop(context, error);
+            return -1;
+        }
+        if (error != null) {
+            return context.onError(error);
+        }
+        long delay = context.onResult(value);
+        if (delay < 1) {
+            context.onComplete();
+        }
+        return delay;
+    }
+
+    /**
+     * Records the outcome of a call whose retry is stopped by its deadline. Errors
+     * are recorded wrapped in {@link DeadlineExceededException}, which retries
+     * built from {@link RetrySetting} ignore, hence count as failed without retry.
+     */
+    private static <T> void stop(Retry.AsyncContext<T> context, Throwable error) {
+        if (error == null) {
+            context.onComplete();
+            return;
+        }
+        LOG.debug("booster-commons - retry stopped by deadline, error: {}", error.toString());
+        context.onError(new DeadlineExceededException(error));
+    }
+
+    private static <T> void complete(CompletableFuture<T> promise, T value, Throwable error) {
+        if (error == null) {
+            promise.complete(value);
+        } else {
+            promise.completeExceptionally(error);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package io.github.booster.commons.retry;
+
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+
+import java.util.Map;
+
+/**
+ * {@link Retry} depositing into a {@link RetryBudget} whenever a call completes
+ * successfully, whether decorated as runnable, callable, supplier, completion
+ * stage or Reactor publisher. Everything else is delegated.
+ */
+final class BudgetedRetry implements Retry {
+
+    private final Retry retry;
+
+    private final RetryBudget budget;
+
+    BudgetedRetry(Retry retry, RetryBudget budget) {
+        this.retry = retry;
+        this.budget = budget;
+    }
+
+    @Override
+    public String getName() {
+        return this.retry.getName();
+    }
+
+    @Override
+    public <T> Context<T> context() {
+        Context<T> context = this.retry.context();
+        return new Context<>() {
+            @Override
+            public void onComplete() {
+                BudgetedRetry.this.budget.deposit();
+                context.onComplete();
+            }
+
+            @Override
+            public boolean onResult(T result) {
+                return context.onResult(result);
+            }
+
+            @Override
+            public void onError(Exception exception) throws Exception {
+                context.onError(exception);
+            }
+
+            @Override
+            public void onRuntimeError(RuntimeException runtimeException) {
+                context.onRuntimeError(runtimeException);
+            }
+        };
+    }
+
+    @Override
+    public <T> AsyncContext<T> asyncContext() {
+        AsyncContext<T> context = this.retry.asyncContext();
+        return new AsyncContext<>() {
+            @Override
+            public void onComplete() {
+                BudgetedRetry.this.budget.deposit();
+                context.onComplete();
+            }
+
+            @Override
+            public long onError(Throwable throwable) {
+                return context.onError(throwable);
+            }
+
+            @Override
+            public long onResult(T result) {
+                return context.onResult(result);
+            }
+        };
+    }
+
+    @Override
+    public RetryConfig getRetryConfig() {
+        return this.retry.getRetryConfig();
+    }
+
+    @Override
+    public Map<String, String> getTags() {
+        return this.retry.getTags();
+    }
+
+    @Override
+    public EventPublisher getEventPublisher() {
+        return this.retry.getEventPublisher();
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return this.retry.getMetrics();
+    }
+
+    @Override
+    public String toString() {
+        return this.retry.toString();
+    }
+}
@@ -0,0 +1,117 @@
+package io.github.booster.commons.retry;
+
+import arrow.core.Option;
+import com.google.common.base.Preconditions;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Point in time by which a caller needs a result. Deadlines are passed explicitly,
+ * bound to the current thread by {@link #call(Supplier)}, or carried in a Reactor
+ * {@link Context} under {@link #CONTEXT_KEY}, so that {@link AsyncRetry} stops
+ * retrying calls whose caller has already given up.
+ */
+public final class Deadline {
+
+    /**
+     * Key of the {@link Deadline} in a Reactor {@link Context}.
+     */
+    public static final String CONTEXT_KEY = Deadline.class.getName();
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    private final LongSupplier nanoTime;
+
+    Deadline(long deadlineNanos, LongSupplier nanoTime) {
+        this.deadlineNanos = deadlineNanos;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Creates a deadline after a timeout from now.
+     * @param timeout time left to the caller.
+     * @return {@link Deadline}
+     */
+    public static Deadline after(Duration timeout) {
+        Preconditions.checkArgument(timeout != null, "timeout cannot be null");
+        return new Deadline(System.nanoTime() + timeout.toNanos(), System::nanoTime);
+    }
+
+    /**
+     * Deadline bound to the current thread.
+     * @return optional {@link Deadline}, empty if none is bound.
+     */
+    public static Option<Deadline> current() {
+        return Option.fromNullable(CURRENT.get());
+    }
+
+    /**
+     * Deadline carried in a Reactor context.
+     * @param context Reactor {@link ContextView}
+     * @return optional {@link Deadline}, empty if context carries none.
+     */
+    public static Option<Deadline> fromContext(ContextView context) {
+        return Option.fromNullable(context == null ? null : context.getOrDefault(CONTEXT_KEY, null));
+    }
+
+    /**
+     * Adds this deadline to a Reactor context, use with {@code contextWrite}.
+     * @param context Reactor {@link Context}
+     * @return {@link Context} carrying this deadline.
+     */
+    public Context toContext(Context context) {
+        return context.put(CONTEXT_KEY, this);
+    }
+
+    /**
+     * Calls a supplier with this deadline bound to the current thread,
+     * restoring the previous deadline afterwards.
+     * @param supplier supplier to call.
+     * @param <T> type of value.
+     * @return value of supplier.
+     */
+    public <T> T call(Supplier<T> supplier) {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return supplier.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Time left before the deadline.
+     * @return remaining time, zero or negative when expired.
+     */
+    public Duration getRemaining() {
+        return Duration.ofNanos(this.getRemainingNanos());
+    }
+
+    long getRemainingNanos() {
+        return this.deadlineNanos - this.nanoTime.getAsLong();
+    }
+
+    /**
+     * Whether the deadline has passed.
+     * @return true if expired.
+     */
+    public boolean isExpired() {
+        return this.getRemainingNanos() <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline(remaining=" + this.getRemaining() + ")";
+    }
+}
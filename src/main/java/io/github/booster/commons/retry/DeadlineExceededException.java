@@ -0,0 +1,19 @@
+package io.github.booster.commons.retry;
+
+/**
+ * Error recorded in a retry when {@link AsyncRetry} stops retrying as the
+ * {@link Deadline} of the call cannot cover another attempt. Retries built
+ * from {@link RetrySetting} ignore it. Callers receive the original error.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates an exception wrapping the error of the last attempt.
+     * @param cause error of the last attempt.
+     */
+    public DeadlineExceededException(Throwable cause) {
+        super("deadline exceeded", cause);
+    }
+}
@@ -0,0 +1,320 @@
+package io.github.booster.commons.retry;
+
+import com.google.common.base.Preconditions;
+import io.github.booster.commons.metrics.BoundCounter;
+import io.github.booster.commons.metrics.MetricsRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Hedges asynchronous calls to cut tail latency. When an attempt has not completed
+ * after a delay, another attempt is started in parallel. The first successful
+ * attempt wins and the others are cancelled. A call fails as soon as all attempts
+ * started have failed, so a primary attempt failing before the delay fails the
+ * call without any hedge. Hedging only covers slow attempts, failed calls are
+ * left to {@link AsyncRetry}.
+ * Hedges in flight across all calls are capped, so that a slow dependency does
+ * not receive double load.
+ */
+public class HedgingPolicy {
+
+    /**
+     * Counter of hedged calls, tagged with policy name.
+     */
+    public static final String CALLS = "hedging.calls";
+
+    /**
+     * Counter of hedges started, tagged with policy name.
+     */
+    public static final String HEDGES = "hedging.hedges";
+
+    /**
+     * Counter of calls won by a hedge, tagged with policy name.
+     */
+    public static final String WINS = "hedging.wins";
+
+    /**
+     * Counter of hedges skipped as too many hedges are in flight, tagged with policy name.
+     */
+    public static final String REJECTED = "hedging.rejected";
+
+    private static final int SAMPLE_SIZE = 256;
+
+    private static final int MIN_SAMPLES = 32;
+
+    private static final int RECOMPUTE_INTERVAL = 32;
+
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    private final HedgingSetting setting;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final LongSupplier nanoTime;
+
+    private final AtomicInteger hedgesInFlight = new AtomicInteger();
+
+    private final AtomicLongArray latencies = new AtomicLongArray(SAMPLE_SIZE);
+
+    private final AtomicLong samples = new AtomicLong();
+
+    private volatile long delayNanos;
+
+    private final BoundCounter calls;
+
+    private final BoundCounter hedges;
+
+    private final BoundCounter wins;
+
+    private final BoundCounter rejected;
+
+    /**
+     * Creates a policy scheduling hedges on {@link AsyncRetry#getScheduler()}.
+     * @param name name of the policy, used as metrics tag.
+     * @param setting {@link HedgingSetting}, default if null.
+     * @param registry {@link MetricsRegistry} to record metrics, no metrics if null.
+     */
+    public HedgingPolicy(String name, HedgingSetting setting, MetricsRegistry registry) {
+        this(name, setting, registry, AsyncRetry.getScheduler());
+    }
+
+    /**
+     * Creates a policy.
+     * @param name name of the policy, used as metrics tag.
+     * @param setting {@link HedgingSetting}, default if null.
+     * @param registry {@link MetricsRegistry} to record metrics, no metrics if null.
+     * @param scheduler {@link ScheduledExecutorService} starting hedges after delay.
+     */
+    public HedgingPolicy(
+            String name,
+            HedgingSetting setting,
+            MetricsRegistry registry,
+            ScheduledExecutorService scheduler
+    ) {
+        this(name, setting, registry, scheduler, System::nanoTime);
+    }
+
+    HedgingPolicy(
+            String name,
+            HedgingSetting setting,
+            MetricsRegistry registry,
+            ScheduledExecutorService scheduler,
+            LongSupplier nanoTime
+    ) {
+        Preconditions.checkArgument(name != null, "name cannot be null");
+        Preconditions.checkArgument(scheduler != null, "scheduler cannot be null");
+        this.setting = setting == null ? new HedgingSetting() : setting;
+        this.scheduler = scheduler;
+        this.nanoTime = nanoTime;
+        this.delayNanos = this.setting.getDelayMillis() * NANOS_PER_MILLI;
+        MetricsRegistry metricsRegistry = registry == null ? new MetricsRegistry() : registry;
+        this.calls = metricsRegistry.counter(CALLS, "name", name);
+        this.hedges = metricsRegistry.counter(HEDGES, "name", name);
+        this.wins = metricsRegistry.counter(WINS, "name", name);
+        this.rejected = metricsRegistry.counter(REJECTED, "name", name);
+    }
+
+    /**
+     * Current delay before a hedge is started.
+     * @return delay in milliseconds.
+     */
+    public long getDelayMillis() {
+        return this.delayNanos / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Number of hedges currently in flight.
+     * @return hedges in flight.
+     */
+    public int getHedgesInFlight() {
+        return this.hedgesInFlight.get();
+    }
+
+    /**
+     * Starts an asynchronous call, hedging it while it is slow. Losing attempts
+     * are cancelled through {@link CompletableFuture#cancel(boolean)}.
+     * @param supplier supplier starting an attempt.
+     * @param <T> type of value.
+     * @return {@link CompletableFuture} of the first successful attempt.
+     */
+    public <T> CompletableFuture<T> execute(Supplier<CompletionStage<T>> supplier) {
+        Preconditions.checkArgument(supplier != null, "supplier cannot be null");
+        Call<T> call = new Call<>(callback -> {
+            CompletableFuture<T> future = supplier.get().toCompletableFuture();
+            future.whenComplete(callback);
+            return () -> future.cancel(true);
+        });
+        call.start();
+        return call.result;
+    }
+
+    /**
+     * Hedges a {@link Mono} by subscribing to it again while it is slow. Losing
+     * subscriptions are disposed, as are all when the result is cancelled.
+     * @param mono {@link Mono} to hedge.
+     * @param <T> type of value.
+     * @return {@link Mono} of the first successful subscription.
+     */
+    public <T> Mono<T> hedge(Mono<T> mono) {
+        Preconditions.checkArgument(mono != null, "mono cannot be null");
+        return Mono.create(sink -> {
+            Call<Optional<T>> call = new Call<>(callback -> {
+                Disposable disposable = mono.map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .subscribe(value -> callback.accept(value, null), error -> callback.accept(null, error));
+                return disposable::dispose;
+            });
+            call.result.whenComplete((value, error) -> {
+                if (error != null) {
+                    sink.error(error);
+                } else {
+                    sink.success(value.orElse(null));
+                }
+            });
+            sink.onCancel(call::cancel);
+            call.start();
+        });
+    }
+
+    private void recordLatency(long nanos) {
+        long sample = this.samples.getAndIncrement();
+        this.latencies.set((int) (sample % SAMPLE_SIZE), nanos);
+        if (this.setting.isAdaptiveDelay() && sample + 1 >= MIN_SAMPLES && (sample + 1) % RECOMPUTE_INTERVAL == 0) {
+            int size = (int) Math.min(sample + 1, SAMPLE_SIZE);
+            long[] sorted = new long[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = this.latencies.get(i);
+            }
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(size * this.setting.getDelayPercentile() / 100.0) - 1;
+            this.delayNanos = Math.max(sorted[Math.max(index, 0)], NANOS_PER_MILLI);
+        }
+    }
+
+    /**
+     * Attempts of one hedged call.
+     * @param <T> type of value.
+     */
+    private final class Call<T> {
+
+        private final Function<BiConsumer<T, Throwable>, Runnable> attempt;
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private final Queue<Runnable> cancellations = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger started = new AtomicInteger();
+
+        private final AtomicInteger failed = new AtomicInteger();
+
+        private final AtomicBoolean won = new AtomicBoolean();
+
+        private final long delay = HedgingPolicy.this.delayNanos;
+
+        private final long startNanos = HedgingPolicy.this.nanoTime.getAsLong();
+
+        private volatile Future<?> nextHedge;
+
+        private Call(Function<BiConsumer<T, Throwable>, Runnable> attempt) {
+            this.attempt = attempt;
+        }
+
+        private void start() {
+            HedgingPolicy.this.calls.increment();
+            this.result.whenComplete((value, error) -> this.cancel());
+            this.startAttempt(false, () -> { });
+        }
+
+        private void startHedge() {
+            if (this.result.isDone()) {
+                return;
+            }
+            if (HedgingPolicy.this.hedgesInFlight.incrementAndGet() > HedgingPolicy.this.setting.getMaxHedgesInFlight()) {
+                HedgingPolicy.this.hedgesInFlight.decrementAndGet();
+                HedgingPolicy.this.rejected.increment();
+                return;
+            }
+            HedgingPolicy.this.hedges.increment();
+            AtomicBoolean released = new AtomicBoolean();
+            this.startAttempt(true, () -> {
+                if (released.compareAndSet(false, true)) {
+                    HedgingPolicy.this.hedgesInFlight.decrementAndGet();
+                }
+            });
+        }
+
+        private void startAttempt(boolean hedge, Runnable release) {
+            int index = this.started.incrementAndGet();
+            if (index <= HedgingPolicy.this.setting.getMaxHedges()) {
+                this.nextHedge = HedgingPolicy.this.scheduler.schedule(
+                        this::startHedge,
+                        this.delay,
+                        TimeUnit.NANOSECONDS
+                );
+            }
+            Runnable cancellation;
+            try {
+                cancellation = this.attempt.apply((value, error) -> {
+                    release.run();
+                    if (error == null) {
+                        if (this.won.compareAndSet(false, true)) {
+                            // call latency rather than winner latency, a winning hedge
+                            // took at least the delay plus its own latency.
+                            HedgingPolicy.this.recordLatency(HedgingPolicy.this.nanoTime.getAsLong() - this.startNanos);
+                            if (hedge) {
+                                HedgingPolicy.this.wins.increment();
+                            }
+                            // losers are cancelled before callers observe the result.
+                            this.cancel();
+                            this.result.complete(value);
+                        }
+                    } else if (this.failed.incrementAndGet() == this.started.get()) {
+                        this.result.completeExceptionally(error);
+                    }
+                });
+            } catch (RuntimeException e) {
+                release.run();
+                if (this.failed.incrementAndGet() == this.started.get()) {
+                    this.result.completeExceptionally(e);
+                }
+                return;
+            }
+            this.cancellations.add(() -> {
+                release.run();
+                cancellation.run();
+            });
+            if (this.result.isDone()) {
+                this.cancel();
+            }
+        }
+
+        private void cancel() {
+            Future<?> next = this.nextHedge;
+            if (next != null) {
+                next.cancel(false);
+            }
+            Runnable cancellation;
+            while ((cancellation = this.cancellations.poll()) != null) {
+                cancellation.run();
+            }
+        }
+    }
+}
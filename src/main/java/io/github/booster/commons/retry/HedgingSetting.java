@@ -0,0 +1,113 @@
+package io.github.booster.commons.retry;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Setting of a {@link HedgingPolicy}.
+ */
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class HedgingSetting {
+
+    /**
+     * Default delay before a hedge is started.
+     */
+    public static final long DEFAULT_DELAY_MILLIS = 50L;
+
+    /**
+     * Default latency percentile used as adaptive delay.
+     */
+    public static final int DEFAULT_DELAY_PERCENTILE = 95;
+
+    /**
+     * Default number of hedges started per call.
+     */
+    public static final int DEFAULT_MAX_HEDGES = 1;
+
+    /**
+     * Default number of hedges in flight across all calls.
+     */
+    public static final int DEFAULT_MAX_HEDGES_IN_FLIGHT = 10;
+
+    private long delayMillis;
+
+    private boolean adaptiveDelay;
+
+    private int delayPercentile;
+
+    private int maxHedges;
+
+    private int maxHedgesInFlight;
+
+    public void setDelayMillis(long delayMillis) {
+        this.delayMillis = delayMillis <= 0 ? DEFAULT_DELAY_MILLIS : delayMillis;
+    }
+
+    /**
+     * Delay before a hedge is started, also used by adaptive delay
+     * until enough latencies are observed.
+     * @return delay in milliseconds.
+     */
+    public long getDelayMillis() {
+        return this.delayMillis <= 0 ? DEFAULT_DELAY_MILLIS : this.delayMillis;
+    }
+
+    public void setAdaptiveDelay(boolean adaptiveDelay) {
+        this.adaptiveDelay = adaptiveDelay;
+    }
+
+    /**
+     * Whether delay follows observed latency percentile instead of being fixed.
+     * @return true if delay is adaptive.
+     */
+    public boolean isAdaptiveDelay() {
+        return this.adaptiveDelay;
+    }
+
+    public void setDelayPercentile(int delayPercentile) {
+        this.delayPercentile = delayPercentile <= 0 || delayPercentile >= 100 ?
+                DEFAULT_DELAY_PERCENTILE :
+                delayPercentile;
+    }
+
+    /**
+     * Latency percentile used as adaptive delay.
+     * @return percentile between 1 and 99.
+     */
+    public int getDelayPercentile() {
+        return this.delayPercentile <= 0 || this.delayPercentile >= 100 ?
+                DEFAULT_DELAY_PERCENTILE :
+                this.delayPercentile;
+    }
+
+    public void setMaxHedges(int maxHedges) {
+        this.maxHedges = maxHedges <= 0 ? DEFAULT_MAX_HEDGES : maxHedges;
+    }
+
+    /**
+     * Number of extra attempts started per call, one per delay elapsed.
+     * @return maximum hedges per call.
+     */
+    public int getMaxHedges() {
+        return this.maxHedges <= 0 ? DEFAULT_MAX_HEDGES : this.maxHedges;
+    }
+
+    public void setMaxHedgesInFlight(int maxHedgesInFlight) {
+        this.maxHedgesInFlight = maxHedgesInFlight <= 0 ? DEFAULT_MAX_HEDGES_IN_FLIGHT : maxHedgesInFlight;
+    }
+
+    /**
+     * Number of hedges in flight across all calls, further hedges are skipped.
+     * @return maximum hedges in flight.
+     */
+    public int getMaxHedgesInFlight() {
+        return this.maxHedgesInFlight <= 0 ? DEFAULT_MAX_HEDGES_IN_FLIGHT : this.maxHedgesInFlight;
+    }
+}
@@ -0,0 +1,152 @@
+package io.github.booster.commons.retry;
+
+import io.github.booster.commons.metrics.BoundCounter;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Lock free token bucket capping retries to a percentage of successful calls
+ * plus a minimum rate, so that retries cannot multiply load on a dependency
+ * that is already failing. Balance is kept in thousandths of a retry.
+ */
+public class RetryBudget {
+
+    /**
+     * Counter of retries denied by a budget, tagged with budget name.
+     */
+    public static final String DENIED = "retry.budget.denied";
+
+    private static final long SCALE = 1000L;
+
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    private final long depositPerSuccess;
+
+    private final long refillPerSecond;
+
+    private final long maxBalance;
+
+    private final long maxRefillNanos;
+
+    private final AtomicLong balance;
+
+    private final AtomicLong lastRefillNanos;
+
+    private final LongSupplier nanoTime;
+
+    private final BoundCounter denied;
+
+    /**
+     * Creates a full budget.
+     * @param setting {@link RetryBudgetSetting}, default if null.
+     * @param denied counter of denied retries.
+     */
+    public RetryBudget(RetryBudgetSetting setting, BoundCounter denied) {
+        this(setting, denied, System::nanoTime);
+    }
+
+    RetryBudget(RetryBudgetSetting setting, BoundCounter denied, LongSupplier nanoTime) {
+        RetryBudgetSetting budgetSetting = setting == null ? new RetryBudgetSetting() : setting;
+        this.depositPerSuccess = budgetSetting.getRetryPercent() * SCALE / 100;
+        this.refillPerSecond = budgetSetting.getMinRetriesPerSecond() * SCALE;
+        this.maxBalance = budgetSetting.getMaxRetries() * SCALE;
+        this.maxRefillNanos = (this.maxBalance / this.refillPerSecond + 1) * NANOS_PER_SECOND;
+        this.balance = new AtomicLong(this.maxBalance);
+        this.nanoTime = nanoTime;
+        this.lastRefillNanos = new AtomicLong(nanoTime.getAsLong());
+        this.denied = denied == null ? BoundCounter.NOOP : denied;
+    }
+
+    /**
+     * Records a successful call, adding retry percentage to the balance.
+     */
+    public void deposit() {
+        this.add(this.depositPerSuccess);
+    }
+
+    /**
+     * Takes one retry from the budget.
+     * @return true if retry is allowed, false if budget is exhausted.
+     */
+    public boolean tryWithdraw() {
+        this.refill();
+        long current;
+        do {
+            current = this.balance.get();
+            if (current < SCALE) {
+                this.denied.increment();
+                return false;
+            }
+        } while (!this.balance.compareAndSet(current, current - SCALE));
+        return true;
+    }
+
+    /**
+     * Number of retries currently allowed.
+     * @return available retries.
+     */
+    public double getAvailableRetries() {
+        this.refill();
+        return (double) this.balance.get() / SCALE;
+    }
+
+    /**
+     * Applies withdrawals of this budget to retries of a configuration. Every
+     * retry is withdrawn, and retry is abandoned when budget is exhausted.
+     * The last failed attempt also withdraws, as resilience4j checks
+     * exceptions before attempt count. Use with {@link #decorate(Retry)},
+     * which deposits successful calls.
+     * @param config resilience4j retry configuration.
+     * @return configuration limited by this budget.
+     */
+    public RetryConfig decorate(RetryConfig config) {
+        Predicate<Throwable> exceptionPredicate = config.getExceptionPredicate();
+        Predicate<Object> resultPredicate = config.getResultPredicate();
+        RetryConfig.Builder<Object> builder = RetryConfig.from(config)
+                .retryOnException(throwable -> exceptionPredicate.test(throwable) && this.tryWithdraw());
+        if (resultPredicate != null) {
+            builder.retryOnResult(result -> resultPredicate.test(result) && this.tryWithdraw());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Deposits every call completed by a retry into this budget, covering
+     * runnables and calls that never reach a result predicate.
+     * @param retry retry whose configuration is decorated by {@link #decorate(RetryConfig)}.
+     * @return retry depositing into this budget.
+     */
+    public Retry decorate(Retry retry) {
+        return new BudgetedRetry(retry, this);
+    }
+
+    private void refill() {
+        long now = this.nanoTime.getAsLong();
+        long last = this.lastRefillNanos.get();
+        long elapsed = Math.min(now - last, this.maxRefillNanos);
+        long credit = elapsed * this.refillPerSecond / NANOS_PER_SECOND;
+        if (credit <= 0) {
+            return;
+        }
+        // only consumes time credited, the remainder counts towards the next refill.
+        long next = elapsed == this.maxRefillNanos ?
+                now :
+                last + (credit * NANOS_PER_SECOND + this.refillPerSecond - 1) / this.refillPerSecond;
+        if (this.lastRefillNanos.compareAndSet(last, next)) {
+            this.add(credit);
+        }
+    }
+
+    private void add(long amount) {
+        long current;
+        long updated;
+        do {
+            current = this.balance.get();
+            updated = Math.min(current + amount, this.maxBalance);
+        } while (current != updated && !this.balance.compareAndSet(current, updated));
+    }
+}
@@ -0,0 +1,90 @@
+package io.github.booster.commons.retry;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Setting of a {@link RetryBudget}, shared by retries naming it in
+ * {@link RetrySetting#getRetryBudget()}.
+ */
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class RetryBudgetSetting {
+
+    /**
+     * Default percentage of successful calls that can be retried.
+     */
+    public static final int DEFAULT_RETRY_PERCENT = 20;
+
+    /**
+     * Default number of retries allowed per second regardless of successful calls.
+     */
+    public static final int DEFAULT_MIN_RETRIES_PER_SECOND = 10;
+
+    /**
+     * Default maximum number of retries that can be saved up.
+     */
+    public static final int DEFAULT_MAX_RETRIES = 100;
+
+    private int retryPercent;
+
+    private int minRetriesPerSecond;
+
+    private int maxRetries;
+
+    public void setRetryPercent(int retryPercent) {
+        this.retryPercent = retryPercent <= 0 ? DEFAULT_RETRY_PERCENT : retryPercent;
+    }
+
+    /**
+     * Percentage of successful calls that can be retried, each successful call
+     * adds this percentage of a retry to the budget.
+     * @return retry percentage.
+     */
+    public int getRetryPercent() {
+        return this.retryPercent <= 0 ? DEFAULT_RETRY_PERCENT : this.retryPercent;
+    }
+
+    public void setMinRetriesPerSecond(int minRetriesPerSecond) {
+        this.minRetriesPerSecond = minRetriesPerSecond <= 0 ? DEFAULT_MIN_RETRIES_PER_SECOND : minRetriesPerSecond;
+    }
+
+    /**
+     * Number of retries added to the budget every second, so that
+     * callers with little successful traffic can still retry.
+     * @return minimum retries per second.
+     */
+    public int getMinRetriesPerSecond() {
+        return this.minRetriesPerSecond <= 0 ? DEFAULT_MIN_RETRIES_PER_SECOND : this.minRetriesPerSecond;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries <= 0 ? DEFAULT_MAX_RETRIES : maxRetries;
+    }
+
+    /**
+     * Maximum number of retries that can be saved up, the budget starts full.
+     * @return maximum retries.
+     */
+    public int getMaxRetries() {
+        return this.maxRetries <= 0 ? DEFAULT_MAX_RETRIES : this.maxRetries;
+    }
+
+    /**
+     * Copies this setting, so later changes through setters do not affect the copy.
+     * @return copy of this setting.
+     */
+    RetryBudgetSetting copy() {
+        RetryBudgetSetting copy = new RetryBudgetSetting();
+        copy.retryPercent = this.retryPercent;
+        copy.minRetriesPerSecond = this.minRetriesPerSecond;
+        copy.maxRetries = this.maxRetries;
+        return copy;
+    }
+}
@@ -1,25 +1,51 @@
 package io.github.booster.commons.retry;
 
 import arrow.core.Option;
+import io.github.booster.commons.metrics.BoundCounter;
 import io.github.booster.commons.metrics.MetricsRegistry;
 import io.github.booster.commons.pool.NamedObjectPool;
+import io.github.booster.commons.pool.NamedObjectPoolSetting;
+import io.github.resilience4j.micrometer.tagged.TaggedRetryMetrics;
 import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Provides a central repository for {@link Retry} management.
+ * All retries live in one {@link RetryRegistry}, whose metrics
+ * are bound once when a {@link MetricsRegistry} is set. Retries
+ * naming a {@link RetryBudget} share it to limit retry amplification.
  */
 public class RetryConfig extends NamedObjectPool<Option<Retry>> {
 
     private static Logger LOG = LoggerFactory.getLogger(RetryConfig.class);
 
-    private Map<String, RetrySetting> retrySettings;
+    private final AtomicReference<Map<String, RetrySetting>> retrySettings = new AtomicReference<>();
 
-    private MetricsRegistry registry;
+    private final AtomicReference<Map<String, RetryBudgetSetting>> retryBudgetSettings =
+            new AtomicReference<>(Collections.emptyMap());
+
+    private final ConcurrentMap<String, RetryBudget> retryBudgets = new ConcurrentHashMap<>();
+
+    private final RetryRegistry retryRegistry = RetryRegistry.ofDefaults();
+
+    private final AtomicBoolean metricsBound = new AtomicBoolean();
+
+    private volatile MetricsRegistry registry;
 
     /**
      * Default constructor
@@ -33,24 +59,189 @@ public class RetryConfig extends NamedObjectPool<Option<Retry>> {
      * @param retrySettings map of {@link RetrySetting} identified by name
      */
     public RetryConfig(Map<String, RetrySetting> retrySettings) {
-        this.retrySettings = retrySettings == null ? new HashMap<>() : retrySettings;
+        this(retrySettings, null);
     }
 
+    /**
+     * Constructor with default retry settings and pool bounds.
+     * @param retrySettings map of {@link RetrySetting} identified by name
+     * @param poolSetting {@link NamedObjectPoolSetting} bounding cached retries, unbounded if null.
+     */
+    public RetryConfig(Map<String, RetrySetting> retrySettings, NamedObjectPoolSetting poolSetting) {
+        super(poolSetting);
+        this.setRetrySettings(retrySettings);
+    }
+
+    /**
+     * Replaces retry settings with an immutable copy, changing a setting afterwards
+     * has no effect until settings are set again. Cached retries whose setting
+     * changed are rebuilt, lookups keep returning previous retries until they
+     * are replaced.
+     * @param retrySettings map of {@link RetrySetting} identified by name
+     */
     public void setRetrySettings(Map<String, RetrySetting> retrySettings) {
-        this.retrySettings = retrySettings == null ? new HashMap<>() : retrySettings;
+        Map<String, RetrySetting> copies = new HashMap<>();
+        if (retrySettings != null) {
+            retrySettings.forEach((name, setting) -> copies.put(name, setting == null ? null : setting.copy()));
+        }
+        Map<String, RetrySetting> current = Collections.unmodifiableMap(copies);
+        this.reload(this.retrySettings.getAndSet(current), current);
+    }
+
+    /**
+     * Replaces retry budget settings with an immutable copy. Budgets whose setting
+     * changed start over, and cached retries using them are rebuilt as a reload.
+     * @param retryBudgetSettings map of {@link RetryBudgetSetting} identified by budget name.
+     */
+    public void setRetryBudgetSettings(Map<String, RetryBudgetSetting> retryBudgetSettings) {
+        Map<String, RetryBudgetSetting> copies = new HashMap<>();
+        if (retryBudgetSettings != null) {
+            retryBudgetSettings.forEach((name, setting) -> copies.put(name, setting == null ? null : setting.copy()));
+        }
+        Map<String, RetryBudgetSetting> current = Collections.unmodifiableMap(copies);
+        Map<String, RetryBudgetSetting> previous = this.retryBudgetSettings.getAndSet(current);
+        this.retryBudgets.keySet().removeIf(budget -> !Objects.equals(previous.get(budget), current.get(budget)));
+        this.reload(this.budgetSettingsByRetry(previous), this.budgetSettingsByRetry(current));
+    }
+
+    private Map<String, RetryBudgetSetting> budgetSettingsByRetry(Map<String, RetryBudgetSetting> budgetSettings) {
+        Map<String, RetryBudgetSetting> settings = new HashMap<>();
+        for (Map.Entry<String, RetrySetting> entry : this.retrySettings.get().entrySet()) {
+            String budget = entry.getValue() == null ? null : entry.getValue().getRetryBudget();
+            if (budget != null && budgetSettings.get(budget) != null) {
+                settings.put(entry.getKey(), budgetSettings.get(budget));
+            }
+        }
+        return settings;
+    }
+
+    /**
+     * Looks up a retry budget, created on first use.
+     * @param name name of the budget.
+     * @return optional {@link RetryBudget}, empty if no budget is configured with the name.
+     */
+    public Option<RetryBudget> getRetryBudget(String name) {
+        RetryBudgetSetting setting = name == null ? null : this.retryBudgetSettings.get().get(name);
+        return Option.fromNullable(
+                setting == null ?
+                        null :
+                        this.retryBudgets.computeIfAbsent(name, budget -> new RetryBudget(
+                                setting,
+                                this.deniedCounter(budget)
+                        ))
+        );
+    }
+
+    /**
+     * Counter of denied retries resolved on each denial, so that budgets created
+     * before {@link #setMetricsRegistry(MetricsRegistry)} still report.
+     */
+    private BoundCounter deniedCounter(String budget) {
+        return new BoundCounter() {
+            @Override
+            public void increment() {
+                this.increment(1.0);
+            }
+
+            @Override
+            public void increment(double amount) {
+                MetricsRegistry metricsRegistry = RetryConfig.this.registry;
+                if (metricsRegistry != null) {
+                    metricsRegistry.counter(RetryBudget.DENIED, "name", budget).increment(amount);
+                }
+            }
+        };
     }
 
+    /**
+     * Binds retry metrics to the first {@link MeterRegistry} set,
+     * covering retries created before and after.
+     * @param registry {@link MetricsRegistry} to record metrics.
+     */
+    @Override
     public void setMetricsRegistry(MetricsRegistry registry) {
         this.registry = registry == null ?
                 new MetricsRegistry() :
                 registry;
+        MeterRegistry meterRegistry = this.registry.getRegistry().orNull();
+        if (meterRegistry != null && this.metricsBound.compareAndSet(false, true)) {
+            TaggedRetryMetrics.ofRetryRegistry(this.retryRegistry).bindTo(meterRegistry);
+        }
+        super.setMetricsRegistry(registry);
+    }
+
+    /**
+     * Registry holding all retries created by this config.
+     * @return {@link RetryRegistry}
+     */
+    public RetryRegistry getRetryRegistry() {
+        return this.retryRegistry;
+    }
+
+    /**
+     * Creates all configured retries in parallel, so first calls after startup
+     * do not pay for creation and meter binding. Join the returned future
+     * to hold readiness until warm-up is done.
+     * @return future completed with warm-up duration.
+     */
+    public CompletableFuture<Duration> warmUp() {
+        return this.warmUp(new ArrayList<>(this.retrySettings.get().keySet()));
+    }
+
+    /**
+     * Removes evicted retries from the registry, which also removes their meters.
+     * @param name name of the evicted retry.
+     * @param obj evicted retry.
+     */
+    @Override
+    protected void onEviction(String name, Option<Retry> obj) {
+        this.retryRegistry.remove(name);
+    }
+
+    /**
+     * Replaces a retry in the registry, meters are moved to the new retry.
+     * @param name name of the retry.
+     * @param previous retry being replaced.
+     * @return new retry.
+     */
+    @Override
+    protected Option<Retry> recreateObject(String name, Option<Retry> previous) {
+        io.github.resilience4j.retry.RetryConfig retryConfig = this.buildRetryConfig(name);
+        if (retryConfig == null) {
+            this.retryRegistry.remove(name);
+            return Option.fromNullable(null);
+        }
+        Retry retry = Retry.of(name, retryConfig);
+        return Option.fromNullable(this.withBudget(
+                name,
+                this.retryRegistry.replace(name, retry).isPresent() ?
+                        retry :
+                        this.retryRegistry.retry(name, retryConfig)
+        ));
     }
 
     @Override
     protected Option<Retry> createObject(String name) {
-        return this.retrySettings.containsKey(name) ?
-                this.retrySettings.get(name).buildRetry(name, this.registry) :
-                Option.fromNullable(null);
+        io.github.resilience4j.retry.RetryConfig retryConfig = this.buildRetryConfig(name);
+        return Option.fromNullable(
+                retryConfig == null ? null : this.withBudget(name, this.retryRegistry.retry(name, retryConfig))
+        );
+    }
+
+    private Retry withBudget(String name, Retry retry) {
+        RetrySetting setting = this.retrySettings.get().get(name);
+        RetryBudget budget = setting == null ? null : this.getRetryBudget(setting.getRetryBudget()).orNull();
+        return budget == null ? retry : budget.decorate(retry);
+    }
+
+    private io.github.resilience4j.retry.RetryConfig buildRetryConfig(String name) {
+        RetrySetting setting = this.retrySettings.get().get(name);
+        io.github.resilience4j.retry.RetryConfig retryConfig = setting == null ? null : setting.buildRetryConfig().orNull();
+        if (retryConfig == null) {
+            return null;
+        }
+        RetryBudget budget = this.getRetryBudget(setting.getRetryBudget()).orNull();
+        return budget == null ? retryConfig : budget.decorate(retryConfig);
     }
 
     @Override
@@ -10,12 +10,13 @@ import io.github.resilience4j.retry.RetryConfig;
 import io.github.resilience4j.retry.RetryRegistry;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 import io.github.booster.commons.metrics.MetricsRegistry;
 import org.apache.commons.lang3.StringUtils;
 
-import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Retry config to create retries.
@@ -24,10 +25,12 @@ import java.time.Duration;
 @NoArgsConstructor
 @AllArgsConstructor
 @ToString
+@EqualsAndHashCode
 public class RetrySetting {
 
     /**
-     * retry backoff policy, either using linear backoff time or exponentially increasing backoff time.
+     * retry backoff policy, either using linear backoff time or exponentially increasing backoff time,
+     * optionally randomized so that clients failing together do not retry together.
      */
     public enum BackOffPolicy {
         /**
@@ -38,6 +41,21 @@ public class RetrySetting {
          * Exponential backoff time.
          */
         EXPONENTIAL,
+        /**
+         * Random backoff time between 0 and exponential backoff time.
+         */
+        FULL_JITTER,
+        /**
+         * Half of exponential backoff time, plus a random time up to the other half.
+         */
+        EQUAL_JITTER,
+        /**
+         * Random backoff time between initial backoff time and three times the
+         * previous upper bound, starting from initial backoff time. Stateless
+         * approximation of decorrelated jitter, where the previous backoff time
+         * is replaced by its upper bound.
+         */
+        DECORRELATED_JITTER,
     }
 
     /**
@@ -52,19 +70,35 @@ public class RetrySetting {
      */
     public static final int MINIMUM_INITIAL_BACKOFF_MILLIS = 1;
 
+    /**
+     * Default multiplier of exponential backoff time.
+     */
+    public static final double DEFAULT_MULTIPLIER = 1.5;
+
+    private static final double DECORRELATED_JITTER_MULTIPLIER = 3.0;
+
     private BackOffPolicy backOffPolicy;
 
     private int maxAttempts;
 
     private int initialBackOffMillis;
 
+    private double multiplier;
+
+    private long maxBackOffMillis;
+
+    private String retryBudget;
+
     public void setBackOffPolicy(BackOffPolicy backOffPolicy) {
         this.backOffPolicy = backOffPolicy == null ? BackOffPolicy.LINEAR : backOffPolicy;
     }
 
     /**
-     * Backoff policy, either linear or exponential.
-     * @return backoff policy, either linear or exponential.
+     * Backoff policy. {@link BackOffPolicy#LINEAR} waits initial backoff time
+     * before every retry. {@link BackOffPolicy#EXPONENTIAL} multiplies it by
+     * {@link #getMultiplier()} on each retry, and the jitter policies randomize
+     * that exponential time. All but linear are capped by {@link #getMaxBackOffMillis()}.
+     * @return backoff policy, {@link BackOffPolicy#LINEAR} if not set.
      */
     public BackOffPolicy getBackOffPolicy() {
         return this.backOffPolicy == null ? BackOffPolicy.LINEAR : this.backOffPolicy;
@@ -95,6 +129,113 @@ public class RetrySetting {
         return this.initialBackOffMillis < MINIMUM_INITIAL_BACKOFF_MILLIS ? DEFAULT_INITIAL_BACKOFF_MILLIS : initialBackOffMillis;
     }
 
+    public void setMultiplier(double multiplier) {
+        this.multiplier = multiplier < 1.0 ? DEFAULT_MULTIPLIER : multiplier;
+    }
+
+    /**
+     * Multiplier applied to backoff time on each attempt, for exponential and jitter policies.
+     * @return multiplier, at least 1.
+     */
+    public double getMultiplier() {
+        return this.multiplier < 1.0 ? DEFAULT_MULTIPLIER : this.multiplier;
+    }
+
+    public void setMaxBackOffMillis(long maxBackOffMillis) {
+        this.maxBackOffMillis = Math.max(maxBackOffMillis, 0);
+    }
+
+    /**
+     * Maximum backoff time in milliseconds, for exponential and jitter policies.
+     * @return maximum backoff milliseconds, 0 if not capped.
+     */
+    public long getMaxBackOffMillis() {
+        return Math.max(this.maxBackOffMillis, 0);
+    }
+
+    public void setRetryBudget(String retryBudget) {
+        this.retryBudget = retryBudget;
+    }
+
+    /**
+     * Name of the {@link RetryBudget} limiting this retry in {@link io.github.booster.commons.retry.RetryConfig},
+     * retries naming the same budget share it.
+     * @return budget name, null if retries are not limited by a budget.
+     */
+    public String getRetryBudget() {
+        return StringUtils.isBlank(this.retryBudget) ? null : this.retryBudget;
+    }
+
+    /**
+     * Copies this setting, so later changes through setters do not affect the copy.
+     * @return copy of this setting.
+     */
+    RetrySetting copy() {
+        RetrySetting copy = new RetrySetting();
+        copy.backOffPolicy = this.backOffPolicy;
+        copy.maxAttempts = this.maxAttempts;
+        copy.initialBackOffMillis = this.initialBackOffMillis;
+        copy.multiplier = this.multiplier;
+        copy.maxBackOffMillis = this.maxBackOffMillis;
+        copy.retryBudget = this.retryBudget;
+        return copy;
+    }
+
+    /**
+     * Backoff time function of this setting, from attempt number starting at 1 to milliseconds.
+     * @return {@link IntervalFunction}
+     */
+    public IntervalFunction getIntervalFunction() {
+        long initial = this.getInitialBackOffMillis();
+        // leaves room for the exclusive random bound when not capped
+        long max = this.getMaxBackOffMillis() == 0 ?
+                Long.MAX_VALUE - 1 :
+                Math.min(Math.max(this.getMaxBackOffMillis(), initial), Long.MAX_VALUE - 1);
+        double multiplier = this.getMultiplier();
+        switch (this.getBackOffPolicy()) {
+            case EXPONENTIAL:
+                return IntervalFunction.ofExponentialBackoff(initial, multiplier, max);
+            case FULL_JITTER:
+                return attempt -> ThreadLocalRandom.current().nextLong(
+                        exponentialBackOff(initial, multiplier, max, attempt) + 1);
+            case EQUAL_JITTER:
+                return attempt -> {
+                    long backOff = exponentialBackOff(initial, multiplier, max, attempt);
+                    return backOff / 2 + ThreadLocalRandom.current().nextLong(backOff - backOff / 2 + 1);
+                };
+            case DECORRELATED_JITTER:
+                return attempt -> ThreadLocalRandom.current().nextLong(initial,
+                        exponentialBackOff(initial, DECORRELATED_JITTER_MULTIPLIER, max, attempt + 1) + 1);
+            default:
+                return IntervalFunction.of(initial);
+        }
+    }
+
+    private static long exponentialBackOff(long initial, double multiplier, long max, int attempt) {
+        double backOff = initial * Math.pow(multiplier, Math.max(attempt, 1) - 1);
+        // compared before casting, as large backoffs cast to Long.MAX_VALUE
+        return backOff >= max ? max : (long) backOff;
+    }
+
+    /**
+     * Builds resilience4j retry configuration, to create retries in a shared
+     * {@link RetryRegistry}.
+     * @return optional {@link RetryConfig}, empty if retry is disabled.
+     */
+    public Option<RetryConfig> buildRetryConfig() {
+        if (this.getMaxAttempts() == 0) {
+            return Option.fromNullable(null);
+        }
+
+        return Option.fromNullable(
+                RetryConfig.custom()
+                        .maxAttempts(this.getMaxAttempts())
+                        .intervalFunction(this.getIntervalFunction())
+                        .ignoreExceptions(DeadlineExceededException.class)
+                        .build()
+        );
+    }
+
     /**
      * Builds a resilience4j Retry using name. No metrics will be reported.
      * @param name name of {@link Retry}
@@ -113,16 +254,11 @@ public class RetrySetting {
     public Option<Retry> buildRetry(String name, MetricsRegistry metricsRegistry) {
         Preconditions.checkArgument(StringUtils.isNotEmpty(name), "name cannot be null");
 
-        if (this.getMaxAttempts() == 0) {
+        RetryConfig retryConfig = this.buildRetryConfig().orNull();
+        if (retryConfig == null) {
             return Option.fromNullable(null);
         }
 
-        RetryConfig retryConfig = RetryConfig.custom()
-                .maxAttempts(this.getMaxAttempts())
-                .intervalFunction(this.getBackOffPolicy() == BackOffPolicy.LINEAR ?
-                        IntervalFunction.of(Duration.ofMillis(this.getInitialBackOffMillis())) :
-                        IntervalFunction.ofExponentialBackoff(Duration.ofMillis(this.getInitialBackOffMillis())))
-                .build();
         RetryRegistry retryRegistry = RetryRegistry.of(retryConfig);
         if (metricsRegistry != null && metricsRegistry.getRegistry().isDefined()) {
             TaggedRetryMetrics.ofRetryRegistry(retryRegistry)
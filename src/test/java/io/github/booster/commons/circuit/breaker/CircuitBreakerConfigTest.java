@@ -1,14 +1,21 @@
 package io.github.booster.commons.circuit.breaker;
 
 import io.github.booster.commons.metrics.MetricsRegistry;
+import io.github.booster.commons.pool.NamedObjectPoolSetting;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.Map;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.core.IsNull.notNullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class CircuitBreakerConfigTest {
@@ -82,4 +89,98 @@ class CircuitBreakerConfigTest {
                 config.get("abc").isDefined(), equalTo(false)
         );
     }
+
+    @Test
+    void shouldRemoveMetersOfEvictedCircuitBreaker() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CircuitBreakerConfig config = new CircuitBreakerConfig(
+                Map.of("first", new CircuitBreakerSetting(), "second", new CircuitBreakerSetting()),
+                NamedObjectPoolSetting.builder().maxSize(1).build()
+        );
+        config.setMetricsRegistry(new MetricsRegistry(meterRegistry));
+
+        assertThat(config.get("first").isDefined(), equalTo(true));
+        assertThat(meterRegistry.find("resilience4j.circuitbreaker.state").tag("name", "first").meters(), not(empty()));
+
+        assertThat(config.get("second").isDefined(), equalTo(true));
+        assertThat(meterRegistry.find("resilience4j.circuitbreaker.state").tag("name", "first").meters(), empty());
+        assertThat(meterRegistry.find("resilience4j.circuitbreaker.state").tag("name", "second").meters(), not(empty()));
+    }
+
+    @Test
+    void shouldWarmUp() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CircuitBreakerConfig config = new CircuitBreakerConfig(
+                Map.of("first", new CircuitBreakerSetting(), "second", new CircuitBreakerSetting()));
+        config.setMetricsRegistry(new MetricsRegistry(meterRegistry));
+
+        Duration duration = config.warmUp().join();
+        assertThat(duration, notNullValue());
+        assertThat(meterRegistry.find("resilience4j.circuitbreaker.state").tag("name", "first").meters(), not(empty()));
+        assertThat(meterRegistry.find("resilience4j.circuitbreaker.state").tag("name", "second").meters(), not(empty()));
+        assertThat(new CircuitBreakerConfig().warmUp().join(), notNullValue());
+    }
+
+    @Test
+    void shouldReloadKeepingState() {
+        CircuitBreakerSetting setting = new CircuitBreakerSetting();
+        CircuitBreakerConfig config = new CircuitBreakerConfig(Map.of("open", setting, "closed", setting, "unchanged", setting));
+        CircuitBreaker open = config.get("open").orNull();
+        open.transitionToOpenState();
+        CircuitBreaker closed = config.get("closed").orNull();
+        CircuitBreaker unchanged = config.get("unchanged").orNull();
+
+        CircuitBreakerSetting changed = new CircuitBreakerSetting();
+        changed.setFailureRateThreshold(20);
+        config.setCircuitBreakerSettings(Map.of("open", changed, "closed", changed, "unchanged", new CircuitBreakerSetting()));
+
+        CircuitBreaker reopened = config.get("open").orNull();
+        assertThat(reopened, not(sameInstance(open)));
+        assertThat(reopened.getCircuitBreakerConfig().getFailureRateThreshold(), equalTo(20.0f));
+        assertThat(reopened.getState(), equalTo(CircuitBreaker.State.OPEN));
+        assertThat(config.get("closed").orNull().getState(), equalTo(CircuitBreaker.State.CLOSED));
+        assertThat(config.get("closed").orNull(), not(sameInstance(closed)));
+        assertThat(config.get("unchanged").orNull(), sameInstance(unchanged));
+        assertThat(config.getVersion(), equalTo(2L));
+    }
+
+    @Test
+    void shouldReloadSettingChangedInPlace() {
+        CircuitBreakerSetting setting = new CircuitBreakerSetting();
+        Map<String, CircuitBreakerSetting> settings = Map.of("test", setting);
+        CircuitBreakerConfig config = new CircuitBreakerConfig(settings);
+        CircuitBreaker breaker = config.get("test").orNull();
+
+        setting.setFailureRateThreshold(20);
+        assertThat(config.get("test").orNull(), sameInstance(breaker));
+        config.setCircuitBreakerSettings(settings);
+
+        CircuitBreaker reloaded = config.get("test").orNull();
+        assertThat(reloaded, not(sameInstance(breaker)));
+        assertThat(reloaded.getCircuitBreakerConfig().getFailureRateThreshold(), equalTo(20.0f));
+    }
+
+    @Test
+    void shouldShareRegistryAndConfig() {
+        CircuitBreakerSetting changed = new CircuitBreakerSetting();
+        changed.setFailureRateThreshold(20);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CircuitBreakerConfig config = new CircuitBreakerConfig(
+                Map.of("first", new CircuitBreakerSetting(), "second", new CircuitBreakerSetting(), "third", changed));
+        config.setMetricsRegistry(new MetricsRegistry(meterRegistry));
+        config.setMetricsRegistry(new MetricsRegistry(meterRegistry));
+
+        CircuitBreaker first = config.get("first").orNull();
+        CircuitBreaker second = config.get("second").orNull();
+        CircuitBreaker third = config.get("third").orNull();
+        assertThat(second.getCircuitBreakerConfig(), sameInstance(first.getCircuitBreakerConfig()));
+        assertThat(third.getCircuitBreakerConfig(), not(sameInstance(first.getCircuitBreakerConfig())));
+        assertThat(config.getCircuitBreakerRegistry().getAllCircuitBreakers().size(), equalTo(3));
+        assertThat(meterRegistry.find("resilience4j.circuitbreaker.state").tag("name", "first").meters().size(), equalTo(6));
+
+        config.setCircuitBreakerSettings(Map.of("first", new CircuitBreakerSetting()));
+        assertThat(config.get("second").isDefined(), equalTo(false));
+        assertThat(config.getCircuitBreakerRegistry().find("second").isPresent(), equalTo(false));
+        assertThat(meterRegistry.find("resilience4j.circuitbreaker.state").tag("name", "second").meters(), empty());
+    }
 }
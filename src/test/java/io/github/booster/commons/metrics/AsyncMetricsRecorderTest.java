@@ -0,0 +1,62 @@
+package io.github.booster.commons.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+class AsyncMetricsRecorderTest {
+
+    private AsyncMetricsRecorder createBlockedRecorder(
+            MetricsRegistry.OverflowPolicy policy,
+            Counter dropped,
+            CountDownLatch started,
+            CountDownLatch release
+    ) throws InterruptedException {
+        AsyncMetricsRecorder recorder = new AsyncMetricsRecorder(2, policy, dropped, record -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        // first record blocks the consumer, next two fill the buffer.
+        assertThat(recorder.publish(MetricRecord.counter("test", new String[0], 1)), equalTo(true));
+        assertThat(started.await(5, TimeUnit.SECONDS), equalTo(true));
+        assertThat(recorder.publish(MetricRecord.counter("test", new String[0], 1)), equalTo(true));
+        assertThat(recorder.publish(MetricRecord.counter("test", new String[0], 1)), equalTo(true));
+        return recorder;
+    }
+
+    @Test
+    void shouldDropWhenFull() throws InterruptedException {
+        Counter dropped = new SimpleMeterRegistry().counter(MetricsRegistry.DROPPED_METRICS);
+        CountDownLatch release = new CountDownLatch(1);
+        AsyncMetricsRecorder recorder = this.createBlockedRecorder(
+                MetricsRegistry.OverflowPolicy.DROP, dropped, new CountDownLatch(1), release);
+
+        assertThat(recorder.publish(MetricRecord.counter("test", new String[0], 1)), equalTo(true));
+        assertThat(dropped.count(), equalTo(1.0));
+        release.countDown();
+        recorder.close();
+    }
+
+    @Test
+    void shouldFallBackWhenFull() throws InterruptedException {
+        Counter dropped = new SimpleMeterRegistry().counter(MetricsRegistry.DROPPED_METRICS);
+        CountDownLatch release = new CountDownLatch(1);
+        AsyncMetricsRecorder recorder = this.createBlockedRecorder(
+                MetricsRegistry.OverflowPolicy.SYNC, dropped, new CountDownLatch(1), release);
+
+        assertThat(recorder.publish(MetricRecord.counter("test", new String[0], 1)), equalTo(false));
+        assertThat(dropped.count(), equalTo(0.0));
+        release.countDown();
+        recorder.close();
+    }
+}
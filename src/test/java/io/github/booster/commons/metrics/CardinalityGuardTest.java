@@ -0,0 +1,48 @@
+package io.github.booster.commons.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+class CardinalityGuardTest {
+
+    @Test
+    void shouldAdmitUpToLimit() {
+        CardinalityGuard guard = new CardinalityGuard(2, Map.of("single", 1, "unlimited", -1));
+        assertThat(guard.tryAdmit("test"), equalTo(true));
+        assertThat(guard.tryAdmit("test"), equalTo(true));
+        assertThat(guard.tryAdmit("test"), equalTo(false));
+
+        guard.release("test");
+        assertThat(guard.tryAdmit("test"), equalTo(true));
+
+        assertThat(guard.tryAdmit("single"), equalTo(true));
+        assertThat(guard.tryAdmit("single"), equalTo(false));
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(guard.tryAdmit("unlimited"), equalTo(true));
+        }
+    }
+
+    @Test
+    void shouldNotLimitByDefault() {
+        CardinalityGuard guard = new CardinalityGuard(0, null);
+        for (int i = 0; i < 10; i++) {
+            assertThat(guard.tryAdmit("test"), equalTo(true));
+        }
+        guard.release("unknown");
+    }
+
+    @Test
+    void shouldFoldTagValues() {
+        assertThat(
+                Arrays.asList(CardinalityGuard.overflowTags("a", "1", "b", "2")),
+                contains("a", MetricsRegistry.OVERFLOW_TAG_VALUE, "b", MetricsRegistry.OVERFLOW_TAG_VALUE)
+        );
+    }
+}
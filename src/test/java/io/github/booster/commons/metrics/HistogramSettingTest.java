@@ -0,0 +1,58 @@
+package io.github.booster.commons.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+class HistogramSettingTest {
+
+    @Test
+    void shouldBuildDefault() {
+        HistogramSetting setting = HistogramSetting.builder().build();
+        assertThat(setting.getServiceLevelObjectivesMillis(), empty());
+        assertThat(setting.getPercentiles(), empty());
+        assertThat(setting.getPercentilePrecision(), equalTo(HistogramSetting.DEFAULT_PERCENTILE_PRECISION));
+        assertThat(setting.getExpiryMillis(), equalTo(HistogramSetting.DEFAULT_EXPIRY_MILLIS));
+        assertThat(setting.getBufferLength(), equalTo(HistogramSetting.DEFAULT_BUFFER_LENGTH));
+        assertThat(setting.isPercentileHistogram(), equalTo(false));
+    }
+
+    @Test
+    void shouldBoundMemorySettings() {
+        HistogramSetting setting = HistogramSetting.builder()
+                .percentilePrecision(10)
+                .bufferLength(100)
+                .expiryMillis(-1)
+                .build();
+        assertThat(setting.getPercentilePrecision(), equalTo(HistogramSetting.MAX_PERCENTILE_PRECISION));
+        assertThat(setting.getBufferLength(), equalTo(HistogramSetting.MAX_BUFFER_LENGTH));
+        assertThat(setting.getExpiryMillis(), equalTo(HistogramSetting.DEFAULT_EXPIRY_MILLIS));
+    }
+
+    @Test
+    void shouldTolerateSet() {
+        HistogramSetting setting = new HistogramSetting();
+        setting.setServiceLevelObjectivesMillis(List.of(10L, 100L));
+        setting.setPercentiles(List.of(0.99));
+        setting.setPercentilePrecision(2);
+        setting.setExpiryMillis(60000);
+        setting.setBufferLength(2);
+        setting.setPercentileHistogram(true);
+
+        assertThat(setting.getServiceLevelObjectivesMillis(), equalTo(List.of(10L, 100L)));
+        assertThat(setting.getPercentiles(), equalTo(List.of(0.99)));
+        assertThat(setting.getPercentilePrecision(), equalTo(2));
+        assertThat(setting.getExpiryMillis(), equalTo(60000));
+        assertThat(setting.getBufferLength(), equalTo(2));
+        assertThat(setting.isPercentileHistogram(), equalTo(true));
+
+        setting.setServiceLevelObjectivesMillis(null);
+        setting.setPercentiles(null);
+        assertThat(setting.getServiceLevelObjectivesMillis(), empty());
+        assertThat(setting.getPercentiles(), empty());
+    }
+}
@@ -0,0 +1,217 @@
+package io.github.booster.commons.metrics;
+
+import arrow.core.Option;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class InstrumentedExecutorServiceTest {
+
+    private MeterRegistry meterRegistry;
+
+    private MetricsRegistry registry;
+
+    @BeforeEach
+    void setup() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.registry = new MetricsRegistry(this.meterRegistry);
+    }
+
+    private ExecutorService measure(ExecutorService executorService, String name) {
+        return this.registry.measureExecutorService(Option.fromNullable(executorService), name).orNull();
+    }
+
+    private void runTasks(ExecutorService executorService) throws InterruptedException, ExecutionException {
+        executorService.execute(() -> { });
+        executorService.submit(() -> { }).get();
+        executorService.submit(() -> { }, "value").get();
+        executorService.submit(() -> "value").get();
+        List<Callable<String>> tasks = List.of(() -> "first", () -> "second");
+        executorService.invokeAll(tasks);
+        executorService.invokeAny(tasks);
+        executorService.shutdown();
+        assertThat(executorService.awaitTermination(5, TimeUnit.SECONDS), equalTo(true));
+    }
+
+    private void assertRecorded(String name) {
+        assertThat(this.meterRegistry.get(InstrumentedExecutorService.EXECUTION).tag("name", name).timer().count(),
+                greaterThanOrEqualTo(6L));
+        assertThat(this.meterRegistry.get(InstrumentedExecutorService.IDLE).tag("name", name).timer().count(),
+                greaterThanOrEqualTo(6L));
+        assertThat(this.meterRegistry.get(InstrumentedExecutorService.RUNNING).tag("name", name).gauge().value(),
+                equalTo(0.0));
+    }
+
+    @Test
+    void shouldRecordThreadPool() throws Exception {
+        ExecutorService executorService = this.measure(Executors.newFixedThreadPool(2), "fixed");
+        assertThat(executorService, instanceOf(InstrumentedExecutorService.class));
+        assertThat(this.measure(executorService, "fixed"), sameInstance(executorService));
+
+        this.runTasks(executorService);
+        this.assertRecorded("fixed");
+        assertThat(executorService.isShutdown(), equalTo(true));
+        assertThat(executorService.isTerminated(), equalTo(true));
+        assertThat(this.meterRegistry.find("executor.pool.size").tag("name", "fixed").gauge(),
+                instanceOf(io.micrometer.core.instrument.Gauge.class));
+    }
+
+    @Test
+    void shouldRecordForkJoinPool() throws Exception {
+        ExecutorService executorService = this.measure(new ForkJoinPool(2), "forkJoin");
+        this.runTasks(executorService);
+        this.assertRecorded("forkJoin");
+        assertThat(this.meterRegistry.find("executor.steals").tag("name", "forkJoin").functionCounter(),
+                instanceOf(io.micrometer.core.instrument.FunctionCounter.class));
+    }
+
+    @Test
+    void shouldRecordVirtualThreads() throws Exception {
+        ExecutorService virtualThreads;
+        try {
+            virtualThreads = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            assumeTrue(false, "virtual threads not supported");
+            return;
+        }
+        ExecutorService executorService = this.measure(virtualThreads, "virtual");
+        this.runTasks(executorService);
+        this.assertRecorded("virtual");
+    }
+
+    @Test
+    void shouldCountRejections() throws InterruptedException {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new SynchronousQueue<>());
+        ExecutorService executorService = this.measure(pool, "rejecting");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executorService.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS), equalTo(true));
+
+        assertThrows(RejectedExecutionException.class, () -> executorService.execute(() -> { }));
+        assertThrows(RejectedExecutionException.class, () -> executorService.submit(() -> "value"));
+        assertThat(this.meterRegistry.get(InstrumentedExecutorService.REJECTED).tag("name", "rejecting").counter().count(),
+                equalTo(2.0));
+        assertThat(this.meterRegistry.get(InstrumentedExecutorService.RUNNING).tag("name", "rejecting").gauge().value(),
+                equalTo(1.0));
+
+        release.countDown();
+        executorService.shutdown();
+        assertThat(executorService.awaitTermination(5, TimeUnit.SECONDS), equalTo(true));
+    }
+
+    @Test
+    void shouldRecordScheduledTasks() throws Exception {
+        ScheduledExecutorService executorService = this.registry.measureScheduledExecutorService(
+                Option.fromNullable(Executors.newScheduledThreadPool(1)), "scheduled").orNull();
+        assertThat(executorService, instanceOf(InstrumentedScheduledExecutorService.class));
+        assertThat(this.measure(executorService, "scheduled"), instanceOf(ScheduledExecutorService.class));
+
+        executorService.schedule(() -> { }, 1, TimeUnit.MILLISECONDS).get();
+        assertThat(executorService.schedule(() -> "value", 1, TimeUnit.MILLISECONDS).get(), equalTo("value"));
+        CountDownLatch periodic = new CountDownLatch(4);
+        executorService.scheduleAtFixedRate(periodic::countDown, 0, 1, TimeUnit.MILLISECONDS);
+        executorService.scheduleWithFixedDelay(periodic::countDown, 0, 1, TimeUnit.MILLISECONDS);
+        assertThat(periodic.await(5, TimeUnit.SECONDS), equalTo(true));
+        executorService.shutdownNow();
+        assertThat(executorService.awaitTermination(5, TimeUnit.SECONDS), equalTo(true));
+
+        assertThat(this.meterRegistry.get(InstrumentedScheduledExecutorService.SCHEDULED_ONCE)
+                .tag("name", "scheduled").counter().count(), equalTo(2.0));
+        assertThat(this.meterRegistry.get(InstrumentedScheduledExecutorService.SCHEDULED_REPETITIVELY)
+                .tag("name", "scheduled").counter().count(), equalTo(2.0));
+        assertThat(this.meterRegistry.get(InstrumentedExecutorService.IDLE).tag("name", "scheduled").timer().count(),
+                equalTo(2L));
+        assertThat(this.meterRegistry.get(InstrumentedExecutorService.EXECUTION).tag("name", "scheduled").timer().count(),
+                greaterThanOrEqualTo(6L));
+    }
+
+    @Test
+    void shouldNotRecordWaitingOfHugeDelays() throws Exception {
+        ScheduledExecutorService executorService = this.registry.measureScheduledExecutorService(
+                Option.fromNullable(Executors.newScheduledThreadPool(1)), "huge").orNull();
+        ScheduledFuture<?> never = executorService.schedule(() -> { }, Long.MAX_VALUE, TimeUnit.DAYS);
+        executorService.schedule(() -> { }, -1, TimeUnit.MILLISECONDS).get();
+        never.cancel(false);
+        executorService.shutdown();
+        assertThat(executorService.awaitTermination(5, TimeUnit.SECONDS), equalTo(true));
+
+        Timer idle = this.meterRegistry.get(InstrumentedExecutorService.IDLE).tag("name", "huge").timer();
+        assertThat(idle.count(), equalTo(1L));
+        assertThat(idle.max(TimeUnit.SECONDS), lessThan(5.0));
+    }
+
+    @Test
+    void shouldRejectDuplicateNamesOfLiveExecutors() throws Exception {
+        ExecutorService first = this.measure(Executors.newSingleThreadExecutor(), "duplicate");
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        assertThrows(IllegalArgumentException.class, () -> this.measure(other, "duplicate"));
+        other.shutdown();
+        first.shutdown();
+        assertThat(first.awaitTermination(5, TimeUnit.SECONDS), equalTo(true));
+
+        ExecutorService second = this.measure(Executors.newSingleThreadExecutor(), "duplicate");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        second.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS), equalTo(true));
+        assertThat(this.meterRegistry.get(InstrumentedExecutorService.RUNNING).tag("name", "duplicate").gauge().value(),
+                equalTo(1.0));
+        release.countDown();
+        second.shutdown();
+        assertThat(second.awaitTermination(5, TimeUnit.SECONDS), equalTo(true));
+    }
+
+    @Test
+    void shouldNotMeasureWithoutRegistry() {
+        ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
+        assertThat(
+                new MetricsRegistry().measureScheduledExecutorService(Option.fromNullable(executorService), "abc").orNull(),
+                sameInstance(executorService)
+        );
+        assertThat(
+                new MetricsRegistry().measureScheduledExecutorService(null, "abc").isDefined(),
+                equalTo(false)
+        );
+        executorService.shutdown();
+    }
+}
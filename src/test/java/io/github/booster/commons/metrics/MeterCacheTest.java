@@ -0,0 +1,57 @@
+package io.github.booster.commons.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+class MeterCacheTest {
+
+    @Test
+    void shouldCacheByNameAndTags() {
+        MeterCache<Object> cache = new MeterCache<>(10);
+        Object meter = new Object();
+        String[] tags = new String[] {"tag", "value"};
+
+        assertThat(cache.get(new MeterKey("test", tags)), nullValue());
+        assertThat(cache.putIfAbsent(new MeterKey("test", tags), meter), sameInstance(meter));
+        assertThat(cache.get(new MeterKey("test", new String[] {"tag", "value"})), sameInstance(meter));
+        assertThat(cache.putIfAbsent(new MeterKey("test", tags), new Object()), sameInstance(meter));
+        assertThat(cache.get(new MeterKey("test", new String[] {"tag", "other"})), nullValue());
+        assertThat(cache.get(new MeterKey("other", tags)), nullValue());
+    }
+
+    @Test
+    void shouldIgnoreTagOrder() {
+        MeterCache<Object> cache = new MeterCache<>(10);
+        Object meter = new Object();
+        String[] tags = new String[] {"b", "2", "a", "1"};
+        cache.putIfAbsent(new MeterKey("test", tags), meter);
+
+        assertThat(cache.get(new MeterKey("test", new String[] {"a", "1", "b", "2"})), sameInstance(meter));
+        assertThat(tags[0], equalTo("b"));
+    }
+
+    @Test
+    void shouldNotShareTagArray() {
+        MeterCache<Object> cache = new MeterCache<>(10);
+        Object meter = new Object();
+        String[] tags = new String[] {"tag", "value"};
+        cache.putIfAbsent(new MeterKey("test", tags), meter);
+        tags[1] = "changed";
+
+        assertThat(cache.get(new MeterKey("test", new String[] {"tag", "value"})), sameInstance(meter));
+    }
+
+    @Test
+    void shouldBeBounded() {
+        MeterCache<Object> cache = new MeterCache<>(1);
+        cache.putIfAbsent(new MeterKey("first", null), new Object());
+
+        assertThat(cache.putIfAbsent(new MeterKey("second", null), new Object()), nullValue());
+        assertThat(cache.get(new MeterKey("second", null)), nullValue());
+        assertThat(cache.size(), equalTo(1));
+    }
+}
@@ -2,30 +2,56 @@ package io.github.booster.commons.metrics;
 
 import arrow.core.Option;
 import arrow.core.OptionKt;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.simple.SimpleConfig;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Scope;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.hamcrest.core.IsNot.not;
 import static org.hamcrest.core.IsNull.notNullValue;
+import static org.hamcrest.core.IsNull.nullValue;
 import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class MetricsRegistryTest {
 
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    private static final String SPAN_ID = "00f067aa0ba902b7";
+
     private MeterRegistry meterRegistry;
 
     @BeforeEach
@@ -33,6 +59,10 @@ class MetricsRegistryTest {
         this.meterRegistry = new SimpleMeterRegistry();
     }
 
+    private static Span createSpan() {
+        return Span.wrap(SpanContext.create(TRACE_ID, SPAN_ID, TraceFlags.getSampled(), TraceState.getDefault()));
+    }
+
     @Test
     void shouldBuild() {
         assertThat(this.meterRegistry, notNullValue());
@@ -58,6 +88,483 @@ class MetricsRegistryTest {
         assertThat(registry.getRegistry().isDefined(), equalTo(true));
     }
 
+    @Test
+    void shouldReuseCachedMeters() {
+        MetricsRegistry registry = new MetricsRegistry(this.meterRegistry);
+        for (int i = 0; i < 10; i++) {
+            registry.incrementCounter("cached", "tag", "value");
+            registry.endSample(registry.startSample(), "cachedTimer", "tag", "value");
+        }
+        registry.incrementCounter("cached", 5, "tag", "value");
+        assertThat(this.meterRegistry.get("cached").tag("tag", "value").counter().count(), equalTo(15.0));
+        assertThat(this.meterRegistry.get("cachedTimer").tag("tag", "value").timer().count(), equalTo(10L));
+        assertThat(this.meterRegistry.getMeters(), hasSize(2));
+    }
+
+    @Test
+    void shouldRecordBeyondCacheSize() {
+        MetricsRegistry registry = new MetricsRegistry(this.meterRegistry, false, 1);
+        registry.incrementCounter("first");
+        registry.incrementCounter("second");
+        registry.incrementCounter("second");
+        assertThat(this.meterRegistry.get("first").counter().count(), equalTo(1.0));
+        assertThat(this.meterRegistry.get("second").counter().count(), equalTo(2.0));
+    }
+
+    @Test
+    void shouldBindMeters() {
+        MetricsRegistry registry = new MetricsRegistry(this.meterRegistry, true);
+        BoundCounter counter = registry.counter("bound", "tag", "value");
+        BoundTimer timer = registry.timer("boundTimer", "tag", "value");
+        counter.increment();
+        counter.increment(2);
+        timer.record(1000000L);
+        registry.incrementCounter("bound", "tag", "value");
+
+        assertThat(registry.counter("bound", "tag", "value"), sameInstance(counter));
+        assertThat(this.meterRegistry.get("bound").tag("tag", "value").counter().count(), equalTo(4.0));
+        Timer micrometerTimer = this.meterRegistry.get("boundTimer").tag("tag", "value").timer();
+        assertThat(micrometerTimer.count(), equalTo(1L));
+        assertThat(micrometerTimer.totalTime(TimeUnit.NANOSECONDS), equalTo(1000000.0));
+    }
+
+    @Test
+    void shouldBindNoopMeters() {
+        MetricsRegistry registry = new MetricsRegistry();
+        assertThat(registry.counter("bound"), sameInstance(BoundCounter.NOOP));
+        assertThat(registry.timer("bound"), sameInstance(BoundTimer.NOOP));
+        registry.counter("bound").increment();
+        registry.timer("bound").record(1L);
+        registry.incrementCounter("bound");
+        registry.endSample(registry.startSample(), "bound");
+    }
+
+    @Test
+    void shouldBufferCounters() throws InterruptedException {
+        MetricsRegistry registry = new MetricsRegistry(this.meterRegistry);
+        registry.enableBufferedCounters(Duration.ofHours(1));
+        BoundCounter counter = registry.counter("buffered");
+
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    counter.increment();
+                    registry.incrementCounter("buffered", 2);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(this.meterRegistry.get("buffered").counter().count(), equalTo(0.0));
+
+        registry.flush();
+        assertThat(this.meterRegistry.get("buffered").counter().count(), equalTo(12000.0));
+
+        registry.incrementCounter("buffered");
+        registry.close();
+        assertThat(this.meterRegistry.get("buffered").counter().count(), equalTo(12001.0));
+    }
+
+    @Test
+    void shouldRecordSynchronouslyAfterClose() {
+        MetricsRegistry registry = new MetricsRegistry(this.meterRegistry);
+        registry.enableBufferedCounters(Duration.ofHours(1));
+        registry.enableAsyncRecording(1024, MetricsRegistry.OverflowPolicy.DROP);
+        BoundCounter bound = registry.counter("buffered");
+        registry.incrementCounter("async");
+        registry.close();
+
+        bound.increment();
+        registry.incrementCounter("buffered");
+        registry.incrementCounter("async");
+        registry.endSample(registry.startSample(), "asyncTimer");
+        assertThat(this.meterRegistry.get("buffered").counter().count(), equalTo(2.0));
+        assertThat(this.meterRegistry.get("async").counter().count(), equalTo(2.0));
+        assertThat(this.meterRegistry.get("asyncTimer").timer().count(), equalTo(1L));
+
+        registry.enableBufferedCounters(Duration.ofHours(1));
+        registry.incrementCounter("rebuffered");
+        assertThat(this.meterRegistry.get("rebuffered").counter().count(), equalTo(0.0));
+        registry.close();
+        assertThat(this.meterRegistry.get("rebuffered").counter().count(), equalTo(1.0));
+    }
+
+    @Test
+    void shouldFlushPeriodically() throws InterruptedException {
+        MetricsRegistry registry = new MetricsRegistry(this.meterRegistry);
+        registry.enableBufferedCounters(Duration.ofMillis(10));
+        registry.incrementCounter("buffered", 3);
+        for (int i = 0; i < 100 && this.meterRegistry.get("buffered").counter().count() == 0.0; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(this.meterRegistry.get("buffered").counter().count(), equalTo(3.0));
+        registry.close();
+    }
+
+    @Test
+    void shouldNotBufferWithoutRegistry() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.enableBufferedCounters(Duration.ofMillis(10));
+        registry.incrementCounter("buffered");
+        registry.flush();
+        registry.close();
+        assertThrows(IllegalArgumentException.class, () -> registry.enableBufferedCounters(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> registry.enableBufferedCounters(null));
+    }
+
+    @Test
+    void shouldFlushWithSubMillisecondInterval() {
+        MetricsRegistry registry = new MetricsRegistry(this.meterRegistry);
+        registry.enableBufferedCounters(Duration.ofNanos(500000));
+        registry.incrementCounter("subMillis");
+        registry.close();
+
+        assertThat(this.meterRegistry.get("subMillis").counter().count(), equalTo(1.0));
+    }
+
+    @Test
+    void shouldRecordAsynchronously() {
+        MetricsRegistry registry = new MetricsRegistry(this.meterRegistry);
+        registry.enableAsyncRecording(1024, MetricsRegistry.OverflowPolicy.SYNC);
+        for (int i = 0; i < 100; i++) {
+            registry.incrementCounter("async", "tag", "value");
+            registry.incrementCounter("async", 2, "tag", "value");
+            registry.endSample(registry.startSample(), "asyncTimer", "tag", "value");
+        }
+        registry.close();
+
+        assertThat(this.meterRegistry.get("async").tag("tag", "value").counter().count(), equalTo(300.0));
+        assertThat(this.meterRegistry.get("asyncTimer").tag("tag", "value").timer().count(), equalTo(100L));
+    }
+
+    @Test
+    void shouldRecordSinceStart() {
+        MockClock clock = new MockClock();
+        MeterRegistry mockRegistry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock);
+        MetricsRegistry registry = new MetricsRegistry(mockRegistry);
+
+        long start = registry.start();
+        clock.add(5, TimeUnit.MILLISECONDS);
+        registry.recordSince(start, "primitive", "tag", "value");
+        Option<Timer.Sample> sample = registry.startSample();
+        clock.add(5, TimeUnit.MILLISECONDS);
+        registry.endSample(sample, "primitive", "tag", "value");
+
+        Timer timer = mockRegistry.get("primitive").tag("tag", "value").timer();
+        assertThat(timer.count(), equalTo(2L));
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS), equalTo(10.0));
+    }
+
+    @Test
+    void shouldTimeSupplierAndRunnable() {
+        MockClock clock = new MockClock();
+        MeterRegistry mockRegistry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock);
+        MetricsRegistry registry = new MetricsRegistry(mockRegistry);
+
+        String value = registry.time(() -> {
+            clock.add(3, TimeUnit.MILLISECONDS);
+            return "value";
+        }, "timed");
+        registry.time(() -> clock.add(2, TimeUnit.MILLISECONDS), "timed");
+        assertThrows(IllegalStateException.class, () -> registry.time((Runnable) () -> {
+            throw new IllegalStateException();
+        }, "timed"));
+
+        assertThat(value, equalTo("value"));
+        assertThat(mockRegistry.get("timed").timer().count(), equalTo(3L));
+        assertThat(mockRegistry.get("timed").timer().totalTime(TimeUnit.MILLISECONDS), equalTo(5.0));
+    }
+
+    @Test
+    void shouldNotTimeWithoutRegistry() {
+        MetricsRegistry registry = new MetricsRegistry();
+        assertThat(registry.start(), equalTo(0L));
+        registry.recordSince(registry.start(), "timed");
+        assertThat(registry.time(() -> "value", "timed"), equalTo("value"));
+    }
+
+    @Test
+    void shouldApplyHistogramSettings() {
+        MetricsRegistry registry = new MetricsRegistry(this.meterRegistry);
+        registry.setHistogramSettings(Map.of(
+                "http.client", HistogramSetting.builder()
+                        .serviceLevelObjectivesMillis(List.of(10L, 100L))
+                        .build(),
+                "http.client.requests", HistogramSetting.builder()
+                        .percentiles(List.of(0.99, 0.999))
+                        .build()
+        ));
+        registry.timer("http.client.requests").record(TimeUnit.MILLISECONDS.toNanos(5));
+        registry.timer("http.client.connections").record(TimeUnit.MILLISECONDS.toNanos(50));
+        registry.timer("http.clients").record(TimeUnit.MILLISECONDS.toNanos(50));
+
+        HistogramSnapshot requests = this.meterRegistry.get("http.client.requests").timer().takeSnapshot();
+        assertThat(requests.percentileValues().length, equalTo(2));
+        assertThat(requests.histogramCounts().length, equalTo(0));
+
+        HistogramSnapshot connections = this.meterRegistry.get("http.client.connections").timer().takeSnapshot();
+        assertThat(connections.percentileValues().length, equalTo(0));
+        assertThat(connections.histogramCounts().length, equalTo(2));
+        assertThat(connections.histogramCounts()[0].count(), equalTo(0.0));
+        assertThat(connections.histogramCounts()[1].count(), equalTo(1.0));
+
+        HistogramSnapshot others = this.meterRegistry.get("http.clients").timer().takeSnapshot();
+        assertThat(others.percentileValues().length, equalTo(0));
+        assertThat(others.histogramCounts().length, equalTo(0));
+    }
+
+    @Test
+    void shouldFoldCombinationsOverLimit() {
+        MetricsRegistry registry = new MetricsRegistry(this.meterRegistry);
+        registry.enableCardinalityLimits(2, Map.of("unlimited", 0));
+        for (int i = 0; i < 5; i++) {
+            registry.incrementCounter("limited", "user", "user" + i);
+            registry.incrementCounter("limited", "user", "user0");
+            registry.incrementCounter("unlimited", "user", "user" + i);
+            registry.timer("limitedTimer", "user", "user" + i).record(1L);
+        }
+
+        assertThat(this.meterRegistry.get("limited").counters(), hasSize(3));
+        assertThat(this.meterRegistry.get("limited").tag("user", "user0").counter().count(), equalTo(6.0));
+        assertThat(this.meterRegistry.get("limited").tag("user", "user1").counter().count(), equalTo(1.0));
+        assertThat(
+                this.meterRegistry.get("limited").tag("user", MetricsRegistry.OVERFLOW_TAG_VALUE).counter().count(),
+                equalTo(3.0)
+        );
+        assertThat(this.meterRegistry.get("unlimited").counters(), hasSize(5));
+        assertThat(this.meterRegistry.get("limitedTimer").timers(), hasSize(3));
+        assertThat(
+                this.meterRegistry.get("limitedTimer").tag("user", MetricsRegistry.OVERFLOW_TAG_VALUE).timer().count(),
+                equalTo(3L)
+        );
+        assertThat(
+                this.meterRegistry.get(MetricsRegistry.CARDINALITY_REJECTED).tag("name", "limited").counter().count(),
+                equalTo(3.0)
+        );
+        assertThat(
+                this.meterRegistry.get(MetricsRegistry.CARDINALITY_REJECTED).tag("name", "limitedTimer").counter().count(),
+                equalTo(3.0)
+        );
+    }
+
+    @Test
+    void shouldRejectCombinationOnce() {
+        MetricsRegistry registry = new MetricsRegistry(this.meterRegistry);
+        registry.enableCardinalityLimits(1, null);
+        for (int i = 0; i < 5; i++) {
+            registry.incrementCounter("limited", "user", "user" + (i % 2));
+            registry.timer("limitedTimer", "user", "user" + (i % 2)).record(1L);
+        }
+
+        assertThat(
+                this.meterRegistry.get("limited").tag("user", MetricsRegistry.OVERFLOW_TAG_VALUE).counter().count(),
+                equalTo(2.0)
+        );
+        assertThat(
+                this.meterRegistry.get("limitedTimer").tag("user", MetricsRegistry.OVERFLOW_TAG_VALUE).timer().count(),
+                equalTo(2L)
+        );
+        assertThat(
+                this.meterRegistry.get(MetricsRegistry.CARDINALITY_REJECTED).tag("name", "limited").counter().count(),
+                equalTo(1.0)
+        );
+        assertThat(
+                this.meterRegistry.get(MetricsRegistry.CARDINALITY_REJECTED).tag("name", "limitedTimer").counter().count(),
+                equalTo(1.0)
+        );
+    }
+
+    @Test
+    void shouldLimitTraceTagsWithoutCaching() {
+        MetricsRegistry registry = new MetricsRegistry(this.meterRegistry, MetricsRegistry.TraceMode.TAG, 1);
+        registry.enableCardinalityLimits(2, null);
+        try (Scope ignored = createSpan().makeCurrent()) {
+            registry.incrementCounter("traced", "tag", "value");
+            registry.incrementCounter("traced", "tag", "value");
+            registry.endSample(registry.startSample(), "tracedTimer", "tag", "value");
+        }
+        registry.incrementCounter("traced", "tag", "value");
+        registry.endSample(registry.startSample(), "tracedTimer", "tag", "value");
+        for (int i = 0; i < 5; i++) {
+            registry.incrementCounter("traced", "tag", "value", MetricsRegistry.TRACE_ID, "trace" + i);
+            registry.timer("tracedTimer", "tag", "value", MetricsRegistry.TRACE_ID, "trace" + i).record(1L);
+        }
+
+        assertThat(
+                this.meterRegistry.get("traced").tag("tag", "value").tag(MetricsRegistry.TRACE_ID, TRACE_ID)
+                        .counter().count(),
+                equalTo(2.0)
+        );
+        assertThat(this.meterRegistry.get("traced").counters(), hasSize(3));
+        assertThat(
+                this.meterRegistry.get("traced").tag(MetricsRegistry.TRACE_ID, MetricsRegistry.OVERFLOW_TAG_VALUE)
+                        .counter().count(),
+                equalTo(5.0)
+        );
+        assertThat(
+                this.meterRegistry.get("tracedTimer").tag(MetricsRegistry.TRACE_ID, TRACE_ID).timer().count(),
+                equalTo(1L)
+        );
+        assertThat(this.meterRegistry.get("tracedTimer").timers(), hasSize(3));
+        assertThat(
+                this.meterRegistry.get(MetricsRegistry.CARDINALITY_REJECTED).tag("name", "traced").counter().count(),
+                equalTo(5.0)
+        );
+    }
+
+    @Test
+    void shouldFoldWhenCacheIsFull() {
+        MetricsRegistry registry = new MetricsRegistry(this.meterRegistry, false, 1);
+        registry.enableCardinalityLimits(10, null);
+        registry.incrementCounter("full", "tag", "a");
+        registry.incrementCounter("full", "tag", "b");
+
+        assertThat(this.meterRegistry.get("full").tag("tag", "a").counter().count(), equalTo(1.0));
+        assertThat(this.meterRegistry.get("full").tag("tag", MetricsRegistry.OVERFLOW_TAG_VALUE).counter().count(), equalTo(1.0));
+        assertThat(this.meterRegistry.get("full").counters(), hasSize(2));
+
+        registry.incrementCounter("full", "tag", "b");
+        assertThat(this.meterRegistry.find(MetricsRegistry.CARDINALITY_REJECTED).counters(), hasSize(0));
+    }
+
+    @Test
+    void shouldCountTagsInAnyOrderAsOneCombination() {
+        MetricsRegistry registry = new MetricsRegistry(this.meterRegistry);
+        registry.enableCardinalityLimits(1, null);
+        registry.incrementCounter("ordered", "a", "1", "b", "2");
+        registry.incrementCounter("ordered", "b", "2", "a", "1");
+
+        assertThat(this.meterRegistry.get("ordered").tag("a", "1").tag("b", "2").counter().count(), equalTo(2.0));
+        assertThat(this.meterRegistry.find(MetricsRegistry.CARDINALITY_REJECTED).counters(), hasSize(0));
+    }
+
+    @Test
+    void shouldReleaseAdmissionLostToAnotherThread() throws Exception {
+        MeterRegistry slowRegistry = new SimpleMeterRegistry() {
+            @Override
+            protected Counter newCounter(Meter.Id id) {
+                try {
+                    // keeps threads admitted for the same combination racing to cache it.
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.newCounter(id);
+            }
+        };
+        MetricsRegistry registry = new MetricsRegistry(slowRegistry);
+        registry.enableCardinalityLimits(9, null);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    registry.incrementCounter("race", "tag", "same");
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        for (int i = 0; i < 8; i++) {
+            registry.incrementCounter("race", "tag", "value" + i);
+        }
+
+        assertThat(slowRegistry.get("race").tag("tag", "same").counter().count(), equalTo(8.0));
+        assertThat(slowRegistry.find("race").tag("tag", MetricsRegistry.OVERFLOW_TAG_VALUE).counters(), hasSize(0));
+        assertThat(slowRegistry.get("race").counters(), hasSize(9));
+    }
+
+    @Test
+    void shouldSampleTimer() {
+        MockClock clock = new MockClock();
+        MeterRegistry mockRegistry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock);
+        MetricsRegistry registry = new MetricsRegistry(mockRegistry);
+        SampledTimer timer = registry.sampledTimer("sampled", 0.1, "tag", "value");
+        assertThat(timer.getRate(), equalTo(0.1));
+
+        int sampled = 0;
+        for (int i = 0; i < 10000; i++) {
+            long start = timer.start();
+            if (start != SampledTimer.NOT_SAMPLED) {
+                sampled++;
+            }
+            clock.add(1, TimeUnit.MILLISECONDS);
+            timer.stop(start);
+        }
+        Timer micrometerTimer = mockRegistry.get("sampled" + SampledTimer.SAMPLED_SUFFIX).tag("tag", "value").timer();
+        Counter calls = mockRegistry.get("sampled" + SampledTimer.CALLS_SUFFIX).tag("tag", "value").counter();
+        assertThat(sampled, greaterThan(500));
+        assertThat(sampled, lessThan(1500));
+        assertThat(calls.count(), equalTo(10000.0));
+        assertThat(micrometerTimer.count(), equalTo((long) sampled));
+        assertThat(micrometerTimer.totalTime(TimeUnit.MILLISECONDS), closeTo(sampled, 0.001));
+        assertThat(micrometerTimer.max(TimeUnit.MILLISECONDS), equalTo(1.0));
+
+        timer.record(TimeUnit.MILLISECONDS.toNanos(5));
+        assertThat(micrometerTimer.count(), equalTo(sampled + 1L));
+        assertThat(calls.count(), equalTo(10001.0));
+    }
+
+    @Test
+    void shouldSampleAllCalls() {
+        MockClock clock = new MockClock();
+        MeterRegistry mockRegistry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock);
+        SampledTimer timer = new MetricsRegistry(mockRegistry).sampledTimer("sampled", 1.0);
+        for (int i = 0; i < 10; i++) {
+            long start = timer.start();
+            clock.add(2, TimeUnit.MILLISECONDS);
+            timer.stop(start);
+        }
+        Timer micrometerTimer = mockRegistry.get("sampled" + SampledTimer.SAMPLED_SUFFIX).timer();
+        assertThat(micrometerTimer.count(), equalTo(10L));
+        assertThat(micrometerTimer.mean(TimeUnit.MILLISECONDS), equalTo(2.0));
+        assertThat(mockRegistry.get("sampled" + SampledTimer.CALLS_SUFFIX).counter().count(), equalTo(10.0));
+    }
+
+    @Test
+    void shouldNotMixSampledAndFullTimers() {
+        MetricsRegistry registry = new MetricsRegistry(this.meterRegistry);
+        registry.timer("mixed").record(1L);
+        registry.sampledTimer("mixed", 1.0).record(1L);
+
+        assertThat(this.meterRegistry.get("mixed").timer().count(), equalTo(1L));
+        assertThat(this.meterRegistry.get("mixed" + SampledTimer.SAMPLED_SUFFIX).timer().count(), equalTo(1L));
+    }
+
+    @Test
+    void shouldApplyHistogramAndLimitsToSampledTimer() {
+        MetricsRegistry registry = new MetricsRegistry(this.meterRegistry);
+        registry.setHistogramSettings(Map.of("sampled", HistogramSetting.builder().percentiles(List.of(0.99)).build()));
+        registry.enableCardinalityLimits(1, null);
+        registry.sampledTimer("sampled", 1.0, "tag", "a").record(1L);
+        registry.sampledTimer("sampled", 1.0, "tag", "b").record(1L);
+
+        String timerName = "sampled" + SampledTimer.SAMPLED_SUFFIX;
+        assertThat(this.meterRegistry.get(timerName).tag("tag", "a").timer().takeSnapshot().percentileValues().length, equalTo(1));
+        assertThat(this.meterRegistry.get(timerName).tag("tag", MetricsRegistry.OVERFLOW_TAG_VALUE).timer().count(), equalTo(1L));
+    }
+
+    @Test
+    void shouldNotSampleWithoutRegistry() {
+        SampledTimer timer = new MetricsRegistry().sampledTimer("sampled", 1.0);
+        assertThat(timer, sameInstance(SampledTimer.NOOP));
+        assertThat(timer.start(), equalTo(SampledTimer.NOT_SAMPLED));
+        timer.stop(timer.start());
+        timer.record(1L);
+        assertThrows(IllegalArgumentException.class, () -> new MetricsRegistry().sampledTimer("sampled", 0));
+        assertThrows(IllegalArgumentException.class, () -> new MetricsRegistry().sampledTimer("sampled", 1.1));
+    }
+
     @Test
     void shouldCreateGauge() {
         MetricsRegistry registry = new MetricsRegistry(this.meterRegistry, true);
@@ -71,6 +578,42 @@ class MetricsRegistryTest {
         assertThat(OptionKt.getOrElse(gauge, () -> null).get(), equalTo(1));
     }
 
+    @Test
+    void shouldCreateFunctionGauges() {
+        MetricsRegistry registry = new MetricsRegistry(this.meterRegistry);
+        AtomicInteger state = new AtomicInteger(3);
+        registry.gauge("functionGauge", state, AtomicInteger::doubleValue, "tag", "value");
+        registry.gauge("supplierGauge", () -> 5.0, "tag", "value");
+        state.incrementAndGet();
+        System.gc();
+
+        assertThat(this.meterRegistry.get("functionGauge").tag("tag", "value").gauge().value(), equalTo(4.0));
+        assertThat(this.meterRegistry.get("supplierGauge").tag("tag", "value").gauge().value(), equalTo(5.0));
+
+        MetricsRegistry noop = new MetricsRegistry();
+        noop.gauge("functionGauge", state, AtomicInteger::doubleValue);
+        noop.gauge("supplierGauge", () -> 5.0);
+    }
+
+    @Test
+    void shouldRegisterMultiGaugeRows() {
+        MetricsRegistry registry = new MetricsRegistry(this.meterRegistry);
+        BoundMultiGauge lag = registry.multiGauge("lag", "topic", "test");
+
+        lag.register(List.of(1, 2, 3), partition -> Tags.of("partition", partition.toString()), partition -> partition * 10);
+        assertThat(this.meterRegistry.get("lag").gauges(), hasSize(3));
+        Gauge first = this.meterRegistry.get("lag").tag("partition", "1").gauge();
+        assertThat(first.value(), equalTo(10.0));
+
+        lag.register(List.of(1, 2), partition -> Tags.of("partition", partition.toString()), partition -> partition * 100);
+        assertThat(this.meterRegistry.get("lag").gauges(), hasSize(2));
+        assertThat(this.meterRegistry.get("lag").tag("partition", "1").gauge(), sameInstance(first));
+        assertThat(first.value(), equalTo(100.0));
+        assertThat(this.meterRegistry.get("lag").tag("partition", "2").tag("topic", "test").gauge().value(), equalTo(200.0));
+
+        new MetricsRegistry().multiGauge("lag").register(List.of(1), partition -> Tags.empty(), partition -> partition);
+    }
+
     @Test
     void shouldCreateTags() {
         Span span = Span.current();
@@ -85,6 +628,37 @@ class MetricsRegistryTest {
         assertThat(tags, contains("abc", "def"));
     }
 
+    @Test
+    void shouldInsertTraceTag() {
+        MetricsRegistry registry = new MetricsRegistry(this.meterRegistry, MetricsRegistry.TraceMode.TAG);
+        try (Scope ignored = createSpan().makeCurrent()) {
+            registry.incrementCounter("traced", "tag", "value");
+            registry.incrementCounter("traced", MetricsRegistry.TRACE_ID, "explicit");
+        }
+        registry.incrementCounter("traced", "tag", "value");
+
+        assertThat(this.meterRegistry.get("traced").tag(MetricsRegistry.TRACE_ID, TRACE_ID).counter().count(), equalTo(1.0));
+        assertThat(this.meterRegistry.get("traced").tag(MetricsRegistry.TRACE_ID, "explicit").counter().count(), equalTo(1.0));
+        assertThat(this.meterRegistry.get("traced").counters(), hasSize(3));
+    }
+
+    @Test
+    void shouldNotInsertTraceTagForExemplars() {
+        MetricsRegistry registry = new MetricsRegistry(this.meterRegistry, MetricsRegistry.TraceMode.EXEMPLAR);
+        assertThat(registry.isRecordTrace(), equalTo(false));
+        try (Scope ignored = createSpan().makeCurrent()) {
+            registry.incrementCounter("traced", "tag", "value");
+            assertThat(TraceExemplars.currentTraceId(), equalTo(TRACE_ID));
+            assertThat(TraceExemplars.currentSpanId(), equalTo(SPAN_ID));
+            assertThat(TraceExemplars.isSampled(), equalTo(true));
+        }
+
+        assertThat(this.meterRegistry.get("traced").counters(), hasSize(1));
+        assertThat(this.meterRegistry.get("traced").tag("tag", "value").counter().count(), equalTo(1.0));
+        assertThat(TraceExemplars.currentTraceId(), nullValue());
+        assertThat(TraceExemplars.isSampled(), equalTo(false));
+    }
+
     @Test
     void shouldReturnEmptyExecutor() {
         MetricsRegistry registry = new MetricsRegistry(new SimpleMeterRegistry());
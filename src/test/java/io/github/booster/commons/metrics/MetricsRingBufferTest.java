@@ -0,0 +1,73 @@
+package io.github.booster.commons.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MetricsRingBufferTest {
+
+    @Test
+    void shouldRoundUpCapacity() {
+        assertThat(new MetricsRingBuffer<Integer>(1).capacity(), equalTo(2));
+        assertThat(new MetricsRingBuffer<Integer>(3).capacity(), equalTo(4));
+        assertThat(new MetricsRingBuffer<Integer>(8).capacity(), equalTo(8));
+        assertThrows(IllegalArgumentException.class, () -> new MetricsRingBuffer<Integer>(0));
+    }
+
+    @Test
+    void shouldRejectWhenFull() {
+        MetricsRingBuffer<Integer> buffer = new MetricsRingBuffer<>(2);
+        assertThat(buffer.offer(1), equalTo(true));
+        assertThat(buffer.offer(2), equalTo(true));
+        assertThat(buffer.offer(3), equalTo(false));
+
+        List<Integer> drained = new ArrayList<>();
+        assertThat(buffer.drain(drained::add, 1), equalTo(1));
+        assertThat(buffer.offer(3), equalTo(true));
+        assertThat(buffer.drain(drained::add, 10), equalTo(2));
+        assertThat(buffer.drain(drained::add, 10), equalTo(0));
+        assertThat(drained, contains(1, 2, 3));
+    }
+
+    @Test
+    void shouldAcceptConcurrentProducers() throws InterruptedException {
+        MetricsRingBuffer<Integer> buffer = new MetricsRingBuffer<>(64);
+        Set<Integer> consumed = ConcurrentHashMap.newKeySet();
+        int producers = 4;
+        int perProducer = 10000;
+
+        Thread[] threads = new Thread[producers];
+        for (int i = 0; i < producers; i++) {
+            int base = i * perProducer;
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < perProducer; j++) {
+                    while (!buffer.offer(base + j)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+
+        int total = 0;
+        while (total < producers * perProducer) {
+            int drained = buffer.drain(consumed::add, 16);
+            if (drained == 0) {
+                Thread.yield();
+            }
+            total += drained;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(consumed.size(), equalTo(producers * perProducer));
+    }
+}
@@ -0,0 +1,36 @@
+package io.github.booster.commons.pool;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ByteBufferPoolTest {
+
+    @Test
+    void shouldReuseDirectBuffers() {
+        ByteBufferPool pool = new ByteBufferPool(null, 1024, true);
+        ByteBuffer buffer = pool.borrow().orNull();
+        assertThat(buffer.isDirect(), equalTo(true));
+        assertThat(buffer.capacity(), equalTo(1024));
+
+        buffer.putInt(1);
+        pool.release(buffer);
+
+        ByteBuffer reused = pool.borrow().orNull();
+        assertThat(reused, sameInstance(buffer));
+        assertThat(reused.position(), equalTo(0));
+        assertThat(reused.remaining(), equalTo(1024));
+    }
+
+    @Test
+    void shouldCreateHeapBuffers() {
+        ByteBufferPool pool = new ByteBufferPool(null, 16, false);
+        assertThat(pool.borrow().orNull().isDirect(), equalTo(false));
+        assertThrows(IllegalArgumentException.class, () -> new ByteBufferPool(null, 0, true));
+    }
+}
@@ -2,13 +2,37 @@ package io.github.booster.commons.pool;
 
 import arrow.core.Option;
 import arrow.core.OptionKt;
+import io.github.booster.commons.metrics.MetricsRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.hamcrest.core.IsNull.notNullValue;
 import static org.hamcrest.core.IsNull.nullValue;
 import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 class NamedObjectPoolTest {
 
@@ -51,4 +75,318 @@ class NamedObjectPoolTest {
         assertThat(pool.get("2"), sameInstance(original));
         assertThat(OptionKt.getOrElse(value, () -> null), sameInstance(original));
     }
+
+    @Test
+    void shouldEvictBeyondMaxSize() {
+        List<String> evicted = new ArrayList<>();
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        NamedObjectPool<Object> boundedPool = new NamedObjectPool<>(
+                NamedObjectPoolSetting.builder().name("bounded").maxSize(2).build()) {
+            @Override
+            protected Object createObject(String name) {
+                return new Object();
+            }
+
+            @Override
+            protected void onEviction(String name, Object obj) {
+                evicted.add(name);
+            }
+        };
+        boundedPool.setMetricsRegistry(new MetricsRegistry(meterRegistry));
+
+        Object first = boundedPool.get("first");
+        boundedPool.get("second");
+        assertThat(boundedPool.get("first"), sameInstance(first));
+        boundedPool.get("third");
+
+        assertThat(evicted, contains("second"));
+        assertThat(boundedPool.get("first"), sameInstance(first));
+        assertThat(meterRegistry.get(NamedObjectPool.HITS).tag("name", "bounded").counter().count(), equalTo(2.0));
+        assertThat(meterRegistry.get(NamedObjectPool.MISSES).tag("name", "bounded").counter().count(), equalTo(3.0));
+        assertThat(meterRegistry.get(NamedObjectPool.EVICTIONS).tag("name", "bounded").counter().count(), equalTo(1.0));
+    }
+
+    @Test
+    void shouldExpireAndCloseObjects() throws InterruptedException {
+        AtomicInteger closed = new AtomicInteger();
+        NamedObjectPool<AutoCloseable> expiringPool = new NamedObjectPool<>(
+                NamedObjectPoolSetting.builder().expireAfterWriteMillis(200).build()) {
+            @Override
+            protected AutoCloseable createObject(String name) {
+                return closed::incrementAndGet;
+            }
+        };
+
+        AutoCloseable original = expiringPool.get("name");
+        assertThat(expiringPool.get("name"), sameInstance(original));
+        Thread.sleep(400);
+        assertThat(expiringPool.get("name"), not(sameInstance(original)));
+        assertThat(closed.get(), equalTo(1));
+    }
+
+    @Test
+    void shouldNotBoundByDefault() {
+        NamedObjectPoolSetting setting = new NamedObjectPoolSetting();
+        assertThat(setting.isBounded(), equalTo(false));
+        assertThat(setting.getName(), equalTo(NamedObjectPoolSetting.DEFAULT_NAME));
+        setting.setMaxSize(-1);
+        setting.setExpireAfterAccessMillis(-1);
+        setting.setExpireAfterWriteMillis(-1);
+        assertThat(setting.isBounded(), equalTo(false));
+        setting.setExpireAfterAccessMillis(1);
+        assertThat(setting.isBounded(), equalTo(true));
+    }
+
+    @Test
+    void shouldShareAsyncCreation() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        NamedObjectPool<Object> asyncPool = new NamedObjectPool<>() {
+            @Override
+            protected Object createObject(String name) {
+                created.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new Object();
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        asyncPool.setCreationExecutor(executor);
+        try {
+            List<CompletableFuture<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                futures.add(asyncPool.getAsync("name"));
+            }
+            for (CompletableFuture<Object> future : futures) {
+                assertThat(future.isDone(), equalTo(false));
+            }
+            release.countDown();
+
+            Object first = futures.get(0).get(5, TimeUnit.SECONDS);
+            for (CompletableFuture<Object> future : futures) {
+                assertThat(future.get(5, TimeUnit.SECONDS), sameInstance(first));
+            }
+            assertThat(asyncPool.getAsync("name").isDone(), equalTo(true));
+            assertThat(asyncPool.getAsync("name").get(), sameInstance(first));
+            assertThat(asyncPool.get("name"), sameInstance(first));
+            assertThat(created.get(), equalTo(1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldRetryFailedAsyncCreation() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        NamedObjectPool<String> failingPool = new NamedObjectPool<>() {
+            @Override
+            protected String createObject(String name) {
+                if (attempts.incrementAndGet() == 1) {
+                    throw new IllegalStateException("failed");
+                }
+                return name;
+            }
+        };
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failingPool.getAsync("name").get(5, TimeUnit.SECONDS));
+        assertThat(e.getCause().getMessage(), equalTo("failed"));
+        assertThat(failingPool.getAsync("name").get(5, TimeUnit.SECONDS), equalTo("name"));
+        assertThat(pool.getAsync("abc").get(5, TimeUnit.SECONDS), nullValue());
+        assertThat(pool.getAsync("2").get(5, TimeUnit.SECONDS), equalTo(2));
+    }
+
+    @Test
+    void shouldFailWhenCreationRejected() {
+        NamedObjectPool<String> rejectingPool = new NamedObjectPool<>() {
+            @Override
+            protected String createObject(String name) {
+                return name;
+            }
+        };
+        rejectingPool.setCreationExecutor(command -> {
+            throw new RejectedExecutionException("rejected");
+        });
+        assertThrows(ExecutionException.class, () -> rejectingPool.getAsync("name").get(5, TimeUnit.SECONDS));
+
+        rejectingPool.setCreationExecutor(null);
+        assertThat(rejectingPool.getAsync("name").join(), equalTo("name"));
+    }
+
+    @Test
+    void shouldCreateOnceUnderContention() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        NamedObjectPool<Object> countingPool = new NamedObjectPool<>() {
+            @Override
+            protected Object createObject(String name) {
+                created.incrementAndGet();
+                return new Object();
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return countingPool.get("shared");
+                }));
+            }
+            start.countDown();
+            Object first = futures.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<Object> future : futures) {
+                assertThat(future.get(5, TimeUnit.SECONDS), sameInstance(first));
+            }
+            assertThat(created.get(), equalTo(1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldNotBlockOtherNamesWhileCreating() throws Exception {
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        NamedObjectPool<String> slowPool = new NamedObjectPool<>() {
+            @Override
+            protected String createObject(String name) {
+                if ("slow".equals(name)) {
+                    creating.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return name;
+            }
+        };
+        assertThat(slowPool.get("fast"), equalTo("fast"));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> slow = executor.submit(() -> slowPool.get("slow"));
+            assertThat(creating.await(5, TimeUnit.SECONDS), equalTo(true));
+            assertThat(slowPool.get("fast"), equalTo("fast"));
+            assertThat(slowPool.get("other"), equalTo("other"));
+            release.countDown();
+            assertThat(slow.get(5, TimeUnit.SECONDS), equalTo("slow"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldRetryCreationWhenNull() {
+        AtomicInteger attempts = new AtomicInteger();
+        NamedObjectPool<Integer> nullPool = new NamedObjectPool<>() {
+            @Override
+            protected Integer createObject(String name) {
+                attempts.incrementAndGet();
+                return null;
+            }
+        };
+        assertThat(nullPool.get("abc"), nullValue());
+        assertThat(nullPool.get("abc"), nullValue());
+        assertThat(attempts.get(), equalTo(2));
+    }
+
+    @Test
+    void shouldNotCreateConcurrentlyWhileRefreshing() throws Exception {
+        AtomicInteger creating = new AtomicInteger();
+        AtomicInteger maxCreating = new AtomicInteger();
+        AtomicInteger calls = new AtomicInteger();
+        NamedObjectPool<String> refreshingPool = new NamedObjectPool<>() {
+            @Override
+            protected String createObject(String name) {
+                maxCreating.accumulateAndGet(creating.incrementAndGet(), Math::max);
+                Thread.yield();
+                creating.decrementAndGet();
+                // alternates between created and not created.
+                return calls.incrementAndGet() % 2 == 0 ? null : name;
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                boolean refresh = i % 2 == 0;
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 2000; j++) {
+                        if (refresh) {
+                            refreshingPool.refresh("name");
+                        } else {
+                            refreshingPool.get("name");
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(maxCreating.get(), equalTo(1));
+    }
+
+    /**
+     * Needs JDK 21 and -Djdk.tracePinnedThreads, passed to the test JVM by the
+     * jdk21 profile, so virtual threads parking while pinned print their stack
+     * to System.out. Skipped on JDK 17.
+     */
+    @Test
+    void shouldNotPinVirtualThreads() throws Exception {
+        ThreadFactory virtualThreads;
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            // looked up on the public interface, the builder class itself is not exported.
+            virtualThreads = (ThreadFactory) Class.forName("java.lang.Thread$Builder")
+                    .getMethod("factory")
+                    .invoke(builder);
+        } catch (NoSuchMethodException | ClassNotFoundException e) {
+            assumeTrue(false, "virtual threads not supported");
+            return;
+        }
+        assumeTrue(System.getProperty("jdk.tracePinnedThreads") != null, "pinned thread tracing not enabled");
+
+        AtomicInteger created = new AtomicInteger();
+        NamedObjectPool<String> slowPool = new NamedObjectPool<>() {
+            @Override
+            protected String createObject(String name) {
+                created.incrementAndGet();
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return name;
+            }
+        };
+
+        PrintStream out = System.out;
+        ByteArrayOutputStream trace = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(trace, true, StandardCharsets.UTF_8));
+        try {
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                String name = "name" + (i % 4);
+                Thread thread = virtualThreads.newThread(() -> slowPool.get(name));
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join(5000);
+            }
+        } finally {
+            System.setOut(out);
+        }
+        assertThat(created.get(), equalTo(4));
+        assertThat(trace.toString(StandardCharsets.UTF_8), not(containsString("<== monitors")));
+    }
 }
@@ -0,0 +1,199 @@
+package io.github.booster.commons.pool;
+
+import arrow.core.Option;
+import io.github.booster.commons.metrics.MetricsRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+class ObjectPoolTest {
+
+    private static class Resource implements AutoCloseable {
+
+        private final AtomicBoolean inUse = new AtomicBoolean();
+
+        private boolean valid = true;
+
+        private boolean closed;
+
+        @Override
+        public void close() {
+            this.closed = true;
+        }
+    }
+
+    private static class ResourcePool extends ObjectPool<Resource> {
+
+        private final AtomicInteger created = new AtomicInteger();
+
+        ResourcePool(ObjectPoolSetting setting) {
+            super(setting);
+        }
+
+        @Override
+        protected Resource createObject() {
+            this.created.incrementAndGet();
+            return new Resource();
+        }
+
+        @Override
+        protected boolean validateObject(Resource obj) {
+            return obj.valid;
+        }
+    }
+
+    @Test
+    void shouldReuseReleasedObjects() {
+        ResourcePool pool = new ResourcePool(null);
+        Resource first = pool.borrow().orNull();
+        assertThat(pool.getActiveCount(), equalTo(1));
+        pool.release(first);
+        assertThat(pool.getIdleCount(), equalTo(1));
+        assertThat(pool.getActiveCount(), equalTo(0));
+
+        assertThat(pool.borrow().orNull(), sameInstance(first));
+        assertThat(pool.created.get(), equalTo(1));
+        pool.release(null);
+    }
+
+    @Test
+    void shouldFailWhenExhausted() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ResourcePool pool = new ResourcePool(ObjectPoolSetting.builder().name("resources").maxSize(2).build());
+        pool.setMetricsRegistry(new MetricsRegistry(meterRegistry));
+
+        Resource first = pool.borrow().orNull();
+        assertThat(pool.borrow().isDefined(), equalTo(true));
+        assertThat(pool.borrow().isDefined(), equalTo(false));
+        pool.release(first);
+        assertThat(pool.borrow().orNull(), sameInstance(first));
+
+        assertThat(meterRegistry.get(ObjectPool.EXHAUSTED).tag("name", "resources").counter().count(), equalTo(1.0));
+        assertThat(meterRegistry.get(ObjectPool.BORROW).tag("name", "resources").timer().count(), equalTo(4L));
+        assertThat(meterRegistry.get(ObjectPool.ACTIVE).tag("name", "resources").gauge().value(), equalTo(2.0));
+        assertThat(meterRegistry.get(ObjectPool.IDLE).tag("name", "resources").gauge().value(), equalTo(0.0));
+    }
+
+    @Test
+    void shouldDestroyInvalidObjects() {
+        ResourcePool pool = new ResourcePool(ObjectPoolSetting.builder().maxSize(1).build());
+        Resource first = pool.borrow().orNull();
+        first.valid = false;
+        pool.release(first);
+
+        Resource second = pool.borrow().orNull();
+        assertThat(second, not(sameInstance(first)));
+        assertThat(first.closed, equalTo(true));
+        assertThat(pool.created.get(), equalTo(2));
+    }
+
+    @Test
+    void shouldEvictIdleObjects() throws InterruptedException {
+        ResourcePool pool = new ResourcePool(ObjectPoolSetting.builder().minIdle(1).maxIdleMillis(1).build());
+        Resource first = pool.borrow().orNull();
+        Resource second = pool.borrow().orNull();
+        pool.release(first);
+        pool.release(second);
+        Thread.sleep(10);
+
+        pool.evict();
+        assertThat(pool.getIdleCount(), equalTo(1));
+        assertThat(first.closed || second.closed, equalTo(true));
+        assertThat(first.closed && second.closed, equalTo(false));
+    }
+
+    @Test
+    void shouldCreateMinIdleInBackground() throws InterruptedException {
+        ResourcePool pool = new ResourcePool(ObjectPoolSetting.builder().minIdle(2).evictionIntervalMillis(5).build());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pool.getIdleCount() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(pool.getIdleCount(), equalTo(2));
+        pool.close();
+    }
+
+    @Test
+    void shouldDestroyOnClose() {
+        ResourcePool pool = new ResourcePool(null);
+        Resource idle = pool.borrow().orNull();
+        Resource borrowed = pool.borrow().orNull();
+        pool.release(idle);
+
+        pool.close();
+        assertThat(idle.closed, equalTo(true));
+        assertThat(borrowed.closed, equalTo(false));
+        assertThat(pool.borrow().isDefined(), equalTo(false));
+        pool.release(borrowed);
+        assertThat(borrowed.closed, equalTo(true));
+        assertThat(pool.getIdleCount(), equalTo(0));
+        assertThat(pool.getActiveCount(), equalTo(0));
+    }
+
+    @Test
+    void shouldNotShareObjectsBetweenThreads() throws Exception {
+        int maxSize = 4;
+        ResourcePool pool = new ResourcePool(ObjectPoolSetting.builder().maxSize(maxSize).build());
+        AtomicInteger shared = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 1000; j++) {
+                        Option<Resource> borrowed = pool.borrow();
+                        Resource resource = borrowed.orNull();
+                        if (resource != null) {
+                            if (!resource.inUse.compareAndSet(false, true)) {
+                                shared.incrementAndGet();
+                            }
+                            resource.inUse.set(false);
+                            pool.release(resource);
+                        } else {
+                            Thread.yield();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(shared.get(), equalTo(0));
+        assertThat(pool.created.get(), lessThanOrEqualTo(maxSize));
+        assertThat(pool.getActiveCount(), equalTo(0));
+    }
+
+    @Test
+    void shouldUseDefaultSetting() {
+        ObjectPoolSetting setting = new ObjectPoolSetting();
+        assertThat(setting.getName(), equalTo(ObjectPoolSetting.DEFAULT_NAME));
+        assertThat(setting.getMaxSize(), equalTo(ObjectPoolSetting.DEFAULT_MAX_SIZE));
+        assertThat(setting.getMinIdle(), equalTo(0));
+        setting.setMaxSize(-1);
+        setting.setMinIdle(100);
+        setting.setMaxIdleMillis(-1);
+        setting.setEvictionIntervalMillis(-1);
+        assertThat(setting.getMaxSize(), equalTo(ObjectPoolSetting.DEFAULT_MAX_SIZE));
+        assertThat(setting.getMinIdle(), equalTo(ObjectPoolSetting.DEFAULT_MAX_SIZE));
+        assertThat(setting.getMaxIdleMillis(), equalTo(0L));
+        assertThat(setting.getEvictionIntervalMillis(), equalTo(0L));
+    }
+}
@@ -0,0 +1,237 @@
+package io.github.booster.commons.retry;
+
+import arrow.core.Option;
+import io.github.resilience4j.retry.Retry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AsyncRetryTest {
+
+    private final Option<Retry> retry = RetrySetting.builder()
+            .maxAttempts(3)
+            .initialBackOffMillis(20)
+            .build()
+            .buildRetry("async");
+
+    @Test
+    void shouldRetryMono() {
+        AtomicInteger attempts = new AtomicInteger();
+        Mono<String> mono = Mono.fromCallable(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IllegalStateException("failed");
+            }
+            return "value";
+        });
+
+        assertThat(AsyncRetry.retry(mono, this.retry).block(), equalTo("value"));
+        assertThat(attempts.get(), equalTo(3));
+    }
+
+    @Test
+    void shouldRetryFlux() {
+        AtomicInteger attempts = new AtomicInteger();
+        Flux<Integer> flux = Flux.defer(() -> attempts.incrementAndGet() < 2 ?
+                Flux.error(new IllegalStateException("failed")) :
+                Flux.just(1, 2));
+
+        List<Integer> values = AsyncRetry.retry(flux, this.retry).collectList().block();
+        assertThat(values, contains(1, 2));
+        assertThat(attempts.get(), equalTo(2));
+    }
+
+    @Test
+    void shouldNotBlockCallingThreadDuringBackOff() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        AtomicInteger attempts = new AtomicInteger();
+        CompletableFuture<String> result = AsyncRetry.<String>executeCompletionStage(() -> {
+            threads.add(Thread.currentThread().getName());
+            return attempts.incrementAndGet() < 3 ?
+                    CompletableFuture.failedFuture(new IllegalStateException("failed")) :
+                    CompletableFuture.completedFuture("value");
+        }, this.retry).toCompletableFuture();
+
+        assertThat(result.isDone(), equalTo(false));
+        assertThat(attempts.get(), equalTo(1));
+        assertThat(result.orTimeout(5, TimeUnit.SECONDS).join(), equalTo("value"));
+        assertThat(attempts.get(), equalTo(3));
+        assertThat(threads, hasItem("booster-retry-scheduler"));
+    }
+
+    @Test
+    void shouldFailAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+        CompletableFuture<String> result = AsyncRetry.<String>executeCompletionStage(() -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalStateException("failed"));
+        }, this.retry).toCompletableFuture();
+
+        CompletionException e = assertThrows(CompletionException.class, () -> result.orTimeout(5, TimeUnit.SECONDS).join());
+        assertThat(e.getCause().getMessage(), equalTo("failed"));
+        assertThat(attempts.get(), equalTo(3));
+    }
+
+    @Test
+    void shouldNotRetryWithoutRetry() {
+        Mono<String> mono = Mono.just("value");
+        Flux<String> flux = Flux.just("value");
+        assertThat(AsyncRetry.retry(mono, Option.fromNullable(null)), sameInstance(mono));
+        assertThat(AsyncRetry.retry(flux, null), sameInstance(flux));
+        assertThat(AsyncRetry.retry(mono, this.retry), not(sameInstance(mono)));
+
+        Supplier<CompletionStage<String>> supplier =
+                () -> CompletableFuture.completedFuture("value");
+        assertThat(AsyncRetry.decorateCompletionStage(supplier, Option.fromNullable(null)), sameInstance(supplier));
+    }
+
+    private final Option<Retry> slowRetry = RetrySetting.builder()
+            .maxAttempts(5)
+            .initialBackOffMillis(200)
+            .build()
+            .buildRetry("deadline");
+
+    @Test
+    void shouldSkipRetryWhenDeadlineCannotCoverBackOff() {
+        AtomicInteger attempts = new AtomicInteger();
+        CompletableFuture<String> result = AsyncRetry.<String>executeCompletionStage(() -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalStateException("failed"));
+        }, this.slowRetry, Option.fromNullable(Deadline.after(Duration.ofMillis(400)))).toCompletableFuture();
+
+        CompletionException e = assertThrows(CompletionException.class, () -> result.orTimeout(5, TimeUnit.SECONDS).join());
+        assertThat(e.getCause().getMessage(), equalTo("failed"));
+        assertThat(attempts.get(), equalTo(2));
+    }
+
+    @Test
+    void shouldTimeOutAttemptAtDeadline() {
+        AtomicInteger attempts = new AtomicInteger();
+        CompletableFuture<String> attempt = new CompletableFuture<>();
+        long start = System.nanoTime();
+        CompletableFuture<String> result = Deadline.after(Duration.ofMillis(100)).call(() ->
+                AsyncRetry.<String>executeCompletionStage(() -> {
+                    attempts.incrementAndGet();
+                    return attempt;
+                }, this.retry, Option.fromNullable(null)).toCompletableFuture()
+        );
+
+        CompletionException e = assertThrows(CompletionException.class, () -> result.orTimeout(5, TimeUnit.SECONDS).join());
+        assertThat(e.getCause(), instanceOf(TimeoutException.class));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), lessThan(1000L));
+        assertThat(attempts.get(), equalTo(1));
+        assertThat(attempt.isCancelled(), equalTo(true));
+    }
+
+    @Test
+    void shouldNotCallAfterDeadline() {
+        AtomicInteger attempts = new AtomicInteger();
+        CompletableFuture<String> result = AsyncRetry.<String>executeCompletionStage(() -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.completedFuture("value");
+        }, this.retry, Option.fromNullable(Deadline.after(Duration.ZERO))).toCompletableFuture();
+
+        CompletionException e = assertThrows(CompletionException.class, result::join);
+        assertThat(e.getCause(), instanceOf(TimeoutException.class));
+        assertThat(attempts.get(), equalTo(0));
+    }
+
+    @Test
+    void shouldRetryMonoWithinDeadlineFromContext() {
+        AtomicInteger attempts = new AtomicInteger();
+        Mono<String> mono = Mono.fromCallable(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("failed");
+        });
+
+        Deadline deadline = Deadline.after(Duration.ofMillis(400));
+        IllegalStateException e = assertThrows(
+                IllegalStateException.class,
+                () -> AsyncRetry.retry(mono, this.slowRetry, Option.fromNullable(null))
+                        .contextWrite(deadline::toContext)
+                        .block(Duration.ofSeconds(5))
+        );
+        assertThat(e.getMessage(), equalTo("failed"));
+        assertThat(attempts.get(), equalTo(2));
+
+        attempts.set(0);
+        Mono<String> succeeding = Mono.fromCallable(() -> attempts.incrementAndGet() < 2 ? null : "value");
+        assertThat(
+                AsyncRetry.retry(succeeding, this.retry, Option.fromNullable(Deadline.after(Duration.ofSeconds(5))))
+                        .block(),
+                nullValue()
+        );
+        assertThat(attempts.get(), equalTo(1));
+    }
+
+    @Test
+    void shouldRecordRetryStoppedByDeadlineWithoutWithdrawingBudget() {
+        RetryBudget budget = new RetryBudget(
+                RetryBudgetSetting.builder().minRetriesPerSecond(1).maxRetries(5).build(),
+                null
+        );
+        Retry budgeted = Retry.of("budgeted", budget.decorate(RetrySetting.builder()
+                .maxAttempts(5)
+                .initialBackOffMillis(200)
+                .build()
+                .buildRetryConfig()
+                .orNull()));
+        AtomicInteger attempts = new AtomicInteger();
+        CompletableFuture<String> result = AsyncRetry.<String>executeCompletionStage(() -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalStateException("failed"));
+        }, Option.fromNullable(budgeted), Option.fromNullable(Deadline.after(Duration.ofMillis(400)))).toCompletableFuture();
+
+        CompletionException e = assertThrows(CompletionException.class, () -> result.orTimeout(5, TimeUnit.SECONDS).join());
+        assertThat(e.getCause().getMessage(), equalTo("failed"));
+        assertThat(attempts.get(), equalTo(2));
+        assertThat(budget.getAvailableRetries(), greaterThanOrEqualTo(4.0));
+        assertThat(budgeted.getMetrics().getNumberOfFailedCallsWithoutRetryAttempt(), equalTo(1L));
+    }
+
+    @Test
+    void shouldCompleteWhenAttemptCannotBeScheduled() {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.shutdown();
+        CompletableFuture<String> rejected = AsyncRetry.<String>executeCompletionStage(
+                () -> CompletableFuture.failedFuture(new IllegalStateException("failed")),
+                this.retry,
+                Option.fromNullable(Deadline.after(Duration.ofSeconds(5))),
+                scheduler
+        ).toCompletableFuture();
+        CompletionException e = assertThrows(CompletionException.class, () -> rejected.orTimeout(5, TimeUnit.SECONDS).join());
+        assertThat(e.getCause(), instanceOf(RejectedExecutionException.class));
+
+        CompletableFuture<String> failed = AsyncRetry.<String>executeCompletionStage(() -> {
+            throw new AssertionError("error");
+        }, Option.fromNullable(null), Option.fromNullable(Deadline.after(Duration.ofSeconds(5)))).toCompletableFuture();
+        e = assertThrows(CompletionException.class, () -> failed.orTimeout(5, TimeUnit.SECONDS).join());
+        assertThat(e.getCause(), instanceOf(AssertionError.class));
+    }
+}
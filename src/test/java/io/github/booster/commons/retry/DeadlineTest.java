@@ -0,0 +1,43 @@
+package io.github.booster.commons.retry;
+
+import org.junit.jupiter.api.Test;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+class DeadlineTest {
+
+    @Test
+    void shouldTrackRemainingTime() {
+        AtomicLong nanoTime = new AtomicLong();
+        Deadline deadline = new Deadline(100L, nanoTime::get);
+        assertThat(deadline.getRemaining(), equalTo(Duration.ofNanos(100L)));
+        assertThat(deadline.isExpired(), equalTo(false));
+
+        nanoTime.set(100L);
+        assertThat(deadline.isExpired(), equalTo(true));
+    }
+
+    @Test
+    void shouldBindToThreadAndContext() {
+        Deadline outer = Deadline.after(Duration.ofSeconds(1));
+        Deadline inner = Deadline.after(Duration.ofSeconds(2));
+        assertThat(Deadline.current().isDefined(), equalTo(false));
+
+        outer.call(() -> {
+            assertThat(Deadline.current().orNull(), sameInstance(outer));
+            assertThat(inner.call(Deadline::current).orNull(), sameInstance(inner));
+            assertThat(Deadline.current().orNull(), sameInstance(outer));
+            return null;
+        });
+        assertThat(Deadline.current().isDefined(), equalTo(false));
+
+        assertThat(Deadline.fromContext(outer.toContext(Context.empty())).orNull(), sameInstance(outer));
+        assertThat(Deadline.fromContext(Context.empty()).isDefined(), equalTo(false));
+    }
+}
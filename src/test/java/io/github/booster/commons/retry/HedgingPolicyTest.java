@@ -0,0 +1,195 @@
+package io.github.booster.commons.retry;
+
+import io.github.booster.commons.metrics.MetricsRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HedgingPolicyTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private HedgingPolicy createPolicy(HedgingSetting setting) {
+        return new HedgingPolicy("test", setting, new MetricsRegistry(this.meterRegistry));
+    }
+
+    private double count(String name) {
+        return this.meterRegistry.get(name).tag("name", "test").counter().count();
+    }
+
+    @Test
+    void shouldNotHedgeFastCalls() {
+        HedgingPolicy policy = this.createPolicy(HedgingSetting.builder().delayMillis(1000).build());
+        AtomicInteger attempts = new AtomicInteger();
+        CompletableFuture<String> result = policy.execute(() -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.completedFuture("value");
+        });
+
+        assertThat(result.join(), equalTo("value"));
+        assertThat(attempts.get(), equalTo(1));
+        assertThat(this.count(HedgingPolicy.CALLS), equalTo(1.0));
+        assertThat(this.count(HedgingPolicy.HEDGES), equalTo(0.0));
+    }
+
+    @Test
+    void shouldHedgeSlowCallsAndCancelLosers() {
+        HedgingPolicy policy = this.createPolicy(HedgingSetting.builder().delayMillis(20).build());
+        List<CompletableFuture<String>> attempts = new CopyOnWriteArrayList<>();
+        CompletableFuture<String> result = policy.execute(() -> {
+            CompletableFuture<String> attempt = attempts.isEmpty() ?
+                    new CompletableFuture<>() :
+                    CompletableFuture.completedFuture("hedge");
+            attempts.add(attempt);
+            return attempt;
+        });
+
+        assertThat(result.orTimeout(5, TimeUnit.SECONDS).join(), equalTo("hedge"));
+        assertThat(attempts.size(), equalTo(2));
+        assertThat(attempts.get(0).isCancelled(), equalTo(true));
+        assertThat(this.count(HedgingPolicy.HEDGES), equalTo(1.0));
+        assertThat(this.count(HedgingPolicy.WINS), equalTo(1.0));
+        assertThat(policy.getHedgesInFlight(), equalTo(0));
+    }
+
+    @Test
+    void shouldCapHedgesInFlight() {
+        HedgingPolicy policy = this.createPolicy(
+                HedgingSetting.builder().delayMillis(10).maxHedges(2).maxHedgesInFlight(1).build()
+        );
+        AtomicInteger attempts = new AtomicInteger();
+        CompletableFuture<String> result = policy.execute(() -> {
+            attempts.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (this.count(HedgingPolicy.REJECTED) < 1.0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(attempts.get(), equalTo(2));
+        assertThat(policy.getHedgesInFlight(), equalTo(1));
+        assertThat(this.count(HedgingPolicy.REJECTED), equalTo(1.0));
+
+        result.cancel(true);
+        assertThat(policy.getHedgesInFlight(), equalTo(0));
+    }
+
+    @Test
+    void shouldFailWhenAllAttemptsFail() {
+        HedgingPolicy policy = this.createPolicy(HedgingSetting.builder().delayMillis(10).build());
+        AtomicInteger attempts = new AtomicInteger();
+        List<CompletableFuture<String>> results = new CopyOnWriteArrayList<>();
+        CompletableFuture<String> result = policy.execute(() -> {
+            attempts.incrementAndGet();
+            CompletableFuture<String> attempt = new CompletableFuture<>();
+            results.add(attempt);
+            return attempt;
+        });
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (results.size() < 2 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        results.get(0).completeExceptionally(new IllegalStateException("primary"));
+        assertThat(result.isDone(), equalTo(false));
+        results.get(1).completeExceptionally(new IllegalStateException("hedge"));
+
+        CompletionException e = assertThrows(CompletionException.class, result::join);
+        assertThat(e.getCause().getMessage(), equalTo("hedge"));
+    }
+
+    @Test
+    void shouldNotHedgePrimaryFailingBeforeDelay() throws InterruptedException {
+        HedgingPolicy policy = this.createPolicy(HedgingSetting.builder().delayMillis(10).build());
+        AtomicInteger attempts = new AtomicInteger();
+        CompletableFuture<String> result = policy.execute(() -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalStateException("failed"));
+        });
+
+        CompletionException e = assertThrows(CompletionException.class, result::join);
+        assertThat(e.getCause().getMessage(), equalTo("failed"));
+        Thread.sleep(50);
+        assertThat(attempts.get(), equalTo(1));
+        assertThat(this.count(HedgingPolicy.HEDGES), equalTo(0.0));
+    }
+
+    @Test
+    void shouldAdaptDelayToObservedLatency() {
+        AtomicInteger time = new AtomicInteger();
+        HedgingPolicy policy = new HedgingPolicy(
+                "test",
+                HedgingSetting.builder().delayMillis(1000).adaptiveDelay(true).delayPercentile(95).build(),
+                null,
+                AsyncRetry.getScheduler(),
+                () -> time.get() * 1000000L
+        );
+        assertThat(policy.getDelayMillis(), equalTo(1000L));
+
+        for (int i = 1; i <= 100; i++) {
+            int latency = i;
+            policy.execute(() -> {
+                time.addAndGet(latency);
+                return CompletableFuture.completedFuture(latency);
+            }).join();
+        }
+        assertThat(policy.getDelayMillis(), greaterThanOrEqualTo(90L));
+        assertThat(policy.getDelayMillis(), lessThan(100L));
+    }
+
+    @Test
+    void shouldAdaptDelayToCallLatencyWhenHedgesWin() {
+        AtomicLong time = new AtomicLong();
+        HedgingPolicy policy = new HedgingPolicy(
+                "test",
+                HedgingSetting.builder().delayMillis(5).adaptiveDelay(true).build(),
+                null,
+                AsyncRetry.getScheduler(),
+                time::get
+        );
+
+        for (int i = 0; i < 32; i++) {
+            AtomicInteger attempts = new AtomicInteger();
+            policy.execute(() -> {
+                if (attempts.incrementAndGet() == 1) {
+                    return new CompletableFuture<>();
+                }
+                time.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+                return CompletableFuture.completedFuture("hedge");
+            }).orTimeout(5, TimeUnit.SECONDS).join();
+        }
+        assertThat(policy.getDelayMillis(), equalTo(100L));
+    }
+
+    @Test
+    void shouldHedgeMono() {
+        HedgingPolicy policy = this.createPolicy(HedgingSetting.builder().delayMillis(20).build());
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger cancelled = new AtomicInteger();
+        Mono<String> mono = Mono.defer(() -> attempts.incrementAndGet() == 1 ?
+                Mono.<String>never().doOnCancel(cancelled::incrementAndGet) :
+                Mono.just("hedge"));
+
+        assertThat(policy.hedge(mono).block(Duration.ofSeconds(5)), equalTo("hedge"));
+        assertThat(attempts.get(), equalTo(2));
+        assertThat(cancelled.get(), equalTo(1));
+        assertThat(policy.hedge(Mono.empty()).blockOptional().isPresent(), equalTo(false));
+    }
+}
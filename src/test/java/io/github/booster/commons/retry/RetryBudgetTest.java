@@ -0,0 +1,150 @@
+package io.github.booster.commons.retry;
+
+import arrow.core.Option;
+import io.github.booster.commons.metrics.MetricsRegistry;
+import io.github.resilience4j.retry.Retry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RetryBudgetTest {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RetryBudget createBudget(int retryPercent, int minRetriesPerSecond, int maxRetries) {
+        return new RetryBudget(
+                RetryBudgetSetting.builder()
+                        .retryPercent(retryPercent)
+                        .minRetriesPerSecond(minRetriesPerSecond)
+                        .maxRetries(maxRetries)
+                        .build(),
+                new MetricsRegistry(this.meterRegistry).counter(RetryBudget.DENIED, "name", "test"),
+                this.nanoTime::get
+        );
+    }
+
+    @Test
+    void shouldAllowRetriesForSuccessfulCalls() {
+        RetryBudget budget = this.createBudget(10, 1, 2);
+        assertThat(budget.tryWithdraw(), equalTo(true));
+        assertThat(budget.tryWithdraw(), equalTo(true));
+        assertThat(budget.tryWithdraw(), equalTo(false));
+
+        for (int i = 0; i < 9; i++) {
+            budget.deposit();
+        }
+        assertThat(budget.tryWithdraw(), equalTo(false));
+        budget.deposit();
+        assertThat(budget.tryWithdraw(), equalTo(true));
+
+        for (int i = 0; i < 1000; i++) {
+            budget.deposit();
+        }
+        assertThat(budget.getAvailableRetries(), equalTo(2.0));
+        assertThat(this.meterRegistry.get(RetryBudget.DENIED).tag("name", "test").counter().count(), equalTo(2.0));
+    }
+
+    @Test
+    void shouldRefillMinimumRate() {
+        RetryBudget budget = this.createBudget(10, 2, 4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(budget.tryWithdraw(), equalTo(true));
+        }
+        assertThat(budget.tryWithdraw(), equalTo(false));
+
+        this.nanoTime.addAndGet(500000000L);
+        assertThat(budget.tryWithdraw(), equalTo(true));
+        assertThat(budget.tryWithdraw(), equalTo(false));
+
+        this.nanoTime.addAndGet(3600000000000L);
+        assertThat(budget.getAvailableRetries(), equalTo(4.0));
+    }
+
+    @Test
+    void shouldKeepRefillRemainder() {
+        RetryBudget budget = this.createBudget(10, 1, 2);
+        assertThat(budget.tryWithdraw(), equalTo(true));
+        assertThat(budget.tryWithdraw(), equalTo(true));
+
+        // refills 1 thousandth of a retry per millisecond, checked every 1.5 milliseconds.
+        for (int i = 0; i < 666; i++) {
+            this.nanoTime.addAndGet(1500000L);
+            assertThat(budget.tryWithdraw(), equalTo(false));
+        }
+        this.nanoTime.addAndGet(1000000L);
+        assertThat(budget.tryWithdraw(), equalTo(true));
+    }
+
+    @Test
+    void shouldStopRetryingWhenExhausted() {
+        RetryBudget budget = this.createBudget(10, 1, 3);
+        Retry retry = budget.decorate(Retry.of("test", budget.decorate(
+                RetrySetting.builder().maxAttempts(3).initialBackOffMillis(1).build().buildRetryConfig().orNull()
+        )));
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(IllegalStateException.class, () -> retry.executeRunnable(() -> {
+                calls.incrementAndGet();
+                throw new IllegalStateException("failed");
+            }));
+        }
+        assertThat(calls.get(), equalTo(5));
+
+        retry.executeSupplier(() -> "value");
+        assertThat(budget.getAvailableRetries(), equalTo(0.1));
+    }
+
+    @Test
+    void shouldRefillFromSuccessfulCalls() throws Exception {
+        RetryBudget budget = this.createBudget(10, 1, 3);
+        Retry retry = budget.decorate(Retry.of("test", budget.decorate(
+                RetrySetting.builder().maxAttempts(2).initialBackOffMillis(1).build().buildRetryConfig().orNull()
+        )));
+        for (int i = 0; i < 3; i++) {
+            assertThat(budget.tryWithdraw(), equalTo(true));
+        }
+        assertThat(budget.getAvailableRetries(), equalTo(0.0));
+
+        for (int i = 0; i < 10; i++) {
+            retry.executeRunnable(() -> { });
+        }
+        assertThat(budget.getAvailableRetries(), equalTo(1.0));
+        for (int i = 0; i < 10; i++) {
+            retry.executeCallable(() -> "value");
+        }
+        assertThat(budget.getAvailableRetries(), equalTo(2.0));
+        for (int i = 0; i < 10; i++) {
+            AsyncRetry.executeCompletionStage(
+                    () -> CompletableFuture.completedFuture("value"),
+                    Option.fromNullable(retry)
+            ).toCompletableFuture().get();
+        }
+        assertThat(budget.getAvailableRetries(), equalTo(3.0));
+    }
+
+    @Test
+    void shouldUseDefaultSetting() {
+        RetryBudgetSetting setting = new RetryBudgetSetting();
+        assertThat(setting.getRetryPercent(), equalTo(RetryBudgetSetting.DEFAULT_RETRY_PERCENT));
+        assertThat(setting.getMinRetriesPerSecond(), equalTo(RetryBudgetSetting.DEFAULT_MIN_RETRIES_PER_SECOND));
+        assertThat(setting.getMaxRetries(), equalTo(RetryBudgetSetting.DEFAULT_MAX_RETRIES));
+        setting.setRetryPercent(-1);
+        setting.setMinRetriesPerSecond(0);
+        setting.setMaxRetries(0);
+        assertThat(setting.getRetryPercent(), equalTo(RetryBudgetSetting.DEFAULT_RETRY_PERCENT));
+        assertThat(setting.getMinRetriesPerSecond(), equalTo(RetryBudgetSetting.DEFAULT_MIN_RETRIES_PER_SECOND));
+        assertThat(setting.getMaxRetries(), equalTo(RetryBudgetSetting.DEFAULT_MAX_RETRIES));
+        assertThat(new RetryBudget(null, null).getAvailableRetries(), equalTo((double) RetryBudgetSetting.DEFAULT_MAX_RETRIES));
+    }
+}
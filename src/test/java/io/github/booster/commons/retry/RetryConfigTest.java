@@ -1,14 +1,23 @@
 package io.github.booster.commons.retry;
 
+import io.github.booster.commons.pool.NamedObjectPool;
+import io.github.booster.commons.pool.NamedObjectPoolSetting;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.github.resilience4j.retry.Retry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.github.booster.commons.metrics.MetricsRegistry;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.hamcrest.core.IsNull.notNullValue;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class RetryConfigTest {
@@ -88,4 +97,184 @@ class RetryConfigTest {
                 config.get("abc").isDefined(), equalTo(false)
         );
     }
+
+    @Test
+    void shouldRemoveMetersOfEvictedRetry() {
+        RetrySetting setting = new RetrySetting();
+        setting.setMaxAttempts(2);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RetryConfig config = new RetryConfig(
+                Map.of("first", setting, "second", setting),
+                NamedObjectPoolSetting.builder().name("retry").maxSize(1).build()
+        );
+        config.setMetricsRegistry(new MetricsRegistry(meterRegistry));
+
+        assertThat(config.get("first").isDefined(), equalTo(true));
+        assertThat(meterRegistry.find("resilience4j.retry.calls").tag("name", "first").meter(), notNullValue());
+
+        assertThat(config.get("second").isDefined(), equalTo(true));
+        assertThat(meterRegistry.find("resilience4j.retry.calls").tag("name", "first").meter(), nullValue());
+        assertThat(meterRegistry.find("resilience4j.retry.calls").tag("name", "second").meter(), notNullValue());
+        assertThat(meterRegistry.get(NamedObjectPool.EVICTIONS).tag("name", "retry").counter().count(), equalTo(1.0));
+    }
+
+    @Test
+    void shouldWarmUp() {
+        RetrySetting setting = new RetrySetting();
+        setting.setMaxAttempts(2);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RetryConfig config = new RetryConfig(
+                Map.of("first", setting, "second", setting, "disabled", new RetrySetting()),
+                NamedObjectPoolSetting.builder().name("retry").build()
+        );
+        config.setMetricsRegistry(new MetricsRegistry(meterRegistry));
+
+        Duration duration = config.warmUp().join();
+        assertThat(duration, notNullValue());
+        assertThat(meterRegistry.get(NamedObjectPool.WARM_UP).tag("name", "retry").timer().count(), equalTo(1L));
+        assertThat(meterRegistry.get(NamedObjectPool.MISSES).tag("name", "retry").counter().count(), equalTo(3.0));
+        assertThat(meterRegistry.find("resilience4j.retry.calls").tag("name", "first").meter(), notNullValue());
+
+        assertThat(config.get("first").isDefined(), equalTo(true));
+        assertThat(config.get("disabled").isDefined(), equalTo(false));
+        assertThat(meterRegistry.get(NamedObjectPool.HITS).tag("name", "retry").counter().count(), equalTo(2.0));
+    }
+
+    @Test
+    void shouldReloadChangedRetries() {
+        RetrySetting twice = RetrySetting.builder().maxAttempts(2).build();
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RetryConfig config = new RetryConfig(Map.of("changed", twice, "unchanged", twice));
+        config.setMetricsRegistry(new MetricsRegistry(meterRegistry));
+        assertThat(config.getVersion(), equalTo(1L));
+
+        Retry changed = config.get("changed").orNull();
+        Retry unchanged = config.get("unchanged").orNull();
+        assertThat(changed.getRetryConfig().getMaxAttempts(), equalTo(2));
+
+        config.setRetrySettings(Map.of(
+                "changed", RetrySetting.builder().maxAttempts(3).build(),
+                "unchanged", RetrySetting.builder().maxAttempts(2).build()
+        ));
+        assertThat(config.getVersion(), equalTo(2L));
+        Retry reloaded = config.get("changed").orNull();
+        assertThat(reloaded, not(sameInstance(changed)));
+        assertThat(reloaded.getRetryConfig().getMaxAttempts(), equalTo(3));
+        assertThat(config.get("unchanged").orNull(), sameInstance(unchanged));
+
+        reloaded.executeRunnable(() -> { });
+        assertThat(meterRegistry.get("resilience4j.retry.calls").tag("name", "changed")
+                .tag("kind", "successful_without_retry").functionCounter().count(), equalTo(1.0));
+
+        config.setRetrySettings(null);
+        assertThat(config.get("changed").isDefined(), equalTo(false));
+        assertThat(config.get("unchanged").isDefined(), equalTo(false));
+    }
+
+    @Test
+    void shouldReloadSettingsChangedInPlace() {
+        RetrySetting setting = RetrySetting.builder().maxAttempts(2).retryBudget("shared").build();
+        RetryBudgetSetting budgetSetting = RetryBudgetSetting.builder().maxRetries(5).build();
+        Map<String, RetrySetting> settings = Map.of("changed", setting);
+        Map<String, RetryBudgetSetting> budgetSettings = Map.of("shared", budgetSetting);
+        RetryConfig config = new RetryConfig(settings);
+        config.setRetryBudgetSettings(budgetSettings);
+        assertThat(config.getVersion(), equalTo(2L));
+        Retry retry = config.get("changed").orNull();
+
+        setting.setMaxAttempts(3);
+        setting.setMultiplier(3.0);
+        setting.setMaxBackOffMillis(1000L);
+        assertThat(config.get("changed").orNull(), sameInstance(retry));
+        config.setRetrySettings(settings);
+        Retry reloaded = config.get("changed").orNull();
+        assertThat(reloaded, not(sameInstance(retry)));
+        assertThat(reloaded.getRetryConfig().getMaxAttempts(), equalTo(3));
+
+        budgetSetting.setMaxRetries(10);
+        assertThat(config.getRetryBudget("shared").orNull().getAvailableRetries(), equalTo(5.0));
+        config.setRetryBudgetSettings(budgetSettings);
+        assertThat(config.getVersion(), equalTo(4L));
+        assertThat(config.get("changed").orNull(), not(sameInstance(reloaded)));
+        assertThat(config.getRetryBudget("shared").orNull().getAvailableRetries(), equalTo(10.0));
+    }
+
+    @Test
+    void shouldCopyAllRetrySettingFields() {
+        RetrySetting setting = RetrySetting.builder()
+                .backOffPolicy(RetrySetting.BackOffPolicy.FULL_JITTER)
+                .maxAttempts(3)
+                .initialBackOffMillis(20)
+                .multiplier(3.0)
+                .maxBackOffMillis(1000L)
+                .retryBudget("shared")
+                .build();
+        assertThat(setting.copy(), equalTo(setting));
+        assertThat(setting.copy(), not(sameInstance(setting)));
+        RetryBudgetSetting budgetSetting = RetryBudgetSetting.builder().retryPercent(10).minRetriesPerSecond(2).maxRetries(5).build();
+        assertThat(budgetSetting.copy(), equalTo(budgetSetting));
+    }
+
+    @Test
+    void shouldShareRegistry() {
+        RetrySetting setting = RetrySetting.builder().maxAttempts(2).build();
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RetryConfig config = new RetryConfig(
+                Map.of("first", setting, "second", setting, "disabled", new RetrySetting()),
+                NamedObjectPoolSetting.builder().maxSize(2).build()
+        );
+        assertThat(config.get("first").isDefined(), equalTo(true));
+        config.setMetricsRegistry(new MetricsRegistry(meterRegistry));
+        config.setMetricsRegistry(new MetricsRegistry(meterRegistry));
+        assertThat(config.get("second").isDefined(), equalTo(true));
+        assertThat(config.get("disabled").isDefined(), equalTo(false));
+
+        assertThat(config.getRetryRegistry().getAllRetries().size(), equalTo(1));
+        assertThat(config.getRetryRegistry().find("second").isPresent(), equalTo(true));
+        assertThat(config.getRetryRegistry().find("first").isPresent(), equalTo(false));
+        assertThat(meterRegistry.find("resilience4j.retry.calls").tag("name", "second").meters().size(), equalTo(4));
+    }
+
+    @Test
+    void shouldLimitRetriesByBudget() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RetrySetting setting = RetrySetting.builder().maxAttempts(3).initialBackOffMillis(1).retryBudget("shared").build();
+        RetryConfig config = new RetryConfig(Map.of("first", setting, "second", setting));
+        config.setMetricsRegistry(new MetricsRegistry(meterRegistry));
+        config.setRetryBudgetSettings(Map.of("shared", RetryBudgetSetting.builder().minRetriesPerSecond(1).maxRetries(2).build()));
+
+        assertThat(config.getRetryBudget("shared").isDefined(), equalTo(true));
+        assertThat(config.getRetryBudget("missing").isDefined(), equalTo(false));
+        assertThat(config.getRetryBudget(null).isDefined(), equalTo(false));
+
+        AtomicInteger calls = new AtomicInteger();
+        Runnable failing = () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("failed");
+        };
+        assertThrows(IllegalStateException.class, () -> config.get("first").orNull().executeRunnable(failing));
+        assertThrows(IllegalStateException.class, () -> config.get("second").orNull().executeRunnable(failing));
+        assertThat(calls.get(), equalTo(4));
+        assertThat(meterRegistry.get(RetryBudget.DENIED).tag("name", "shared").counter().count(), equalTo(2.0));
+
+        Retry first = config.get("first").orNull();
+        config.setRetryBudgetSettings(Map.of("shared", RetryBudgetSetting.builder().maxRetries(10).build()));
+        assertThat(config.get("first").orNull(), not(sameInstance(first)));
+        assertThat(config.getRetryBudget("shared").orNull().getAvailableRetries(), equalTo(10.0));
+    }
+
+    @Test
+    void shouldReportDenialsOfBudgetCreatedBeforeMetricsRegistry() {
+        RetrySetting setting = RetrySetting.builder().maxAttempts(3).initialBackOffMillis(1).retryBudget("shared").build();
+        RetryConfig config = new RetryConfig(Map.of("first", setting));
+        config.setRetryBudgetSettings(Map.of("shared", RetryBudgetSetting.builder().minRetriesPerSecond(1).maxRetries(1).build()));
+        Retry retry = config.get("first").orNull();
+
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        config.setMetricsRegistry(new MetricsRegistry(meterRegistry));
+        assertThrows(IllegalStateException.class, () -> retry.executeRunnable(() -> {
+            throw new IllegalStateException("failed");
+        }));
+        assertThat(meterRegistry.get(RetryBudget.DENIED).tag("name", "shared").counter().count(), equalTo(1.0));
+    }
 }
@@ -2,9 +2,17 @@ package io.github.booster.commons.retry;
 
 import io.github.booster.commons.metrics.MetricsRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.github.resilience4j.core.IntervalFunction;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.hamcrest.core.IsNull.notNullValue;
 
@@ -130,4 +138,140 @@ class RetrySettingTest {
         setting.setInitialBackOffMillis(100);
         assertThat(setting.getInitialBackOffMillis(), equalTo(100));
     }
+
+    @Test
+    void shouldCompareNormalizedValues() {
+        assertThat(RetrySetting.builder().build(), equalTo(new RetrySetting()));
+        assertThat(
+                RetrySetting.builder().maxAttempts(3).initialBackOffMillis(0).build(),
+                equalTo(RetrySetting.builder().maxAttempts(3).initialBackOffMillis(RetrySetting.DEFAULT_INITIAL_BACKOFF_MILLIS).build())
+        );
+        assertThat(
+                RetrySetting.builder().maxAttempts(3).build().equals(RetrySetting.builder().maxAttempts(4).build()),
+                equalTo(false)
+        );
+    }
+
+    @Test
+    void shouldBuildRetryConfig() {
+        assertThat(new RetrySetting().buildRetryConfig().isDefined(), equalTo(false));
+        io.github.resilience4j.retry.RetryConfig retryConfig = RetrySetting.builder()
+                .maxAttempts(3)
+                .build()
+                .buildRetryConfig()
+                .orNull();
+        assertThat(retryConfig.getMaxAttempts(), equalTo(3));
+        assertThat(retryConfig.getIntervalBiFunction().apply(1, null), equalTo((long) RetrySetting.DEFAULT_INITIAL_BACKOFF_MILLIS));
+    }
+
+    @Test
+    void shouldDefaultMultiplierAndCap() {
+        RetrySetting setting = new RetrySetting();
+        assertThat(setting.getMultiplier(), equalTo(RetrySetting.DEFAULT_MULTIPLIER));
+        assertThat(setting.getMaxBackOffMillis(), equalTo(0L));
+        setting.setMultiplier(0.5);
+        setting.setMaxBackOffMillis(-1);
+        assertThat(setting.getMultiplier(), equalTo(RetrySetting.DEFAULT_MULTIPLIER));
+        assertThat(setting.getMaxBackOffMillis(), equalTo(0L));
+        setting.setMultiplier(2.0);
+        setting.setMaxBackOffMillis(1000);
+        assertThat(setting.getMultiplier(), equalTo(2.0));
+        assertThat(setting.getMaxBackOffMillis(), equalTo(1000L));
+    }
+
+    @Test
+    void shouldCapExponentialBackOff() {
+        IntervalFunction linear = RetrySetting.builder().initialBackOffMillis(100).build().getIntervalFunction();
+        assertThat(linear.apply(5), equalTo(100L));
+
+        IntervalFunction exponential = RetrySetting.builder()
+                .backOffPolicy(RetrySetting.BackOffPolicy.EXPONENTIAL)
+                .initialBackOffMillis(100)
+                .multiplier(2.0)
+                .maxBackOffMillis(500)
+                .build()
+                .getIntervalFunction();
+        assertThat(exponential.apply(1), equalTo(100L));
+        assertThat(exponential.apply(2), equalTo(200L));
+        assertThat(exponential.apply(3), equalTo(400L));
+        assertThat(exponential.apply(4), equalTo(500L));
+    }
+
+    @Test
+    void shouldKeepJitterWithinBounds() {
+        for (int i = 0; i < 1000; i++) {
+            for (int attempt = 1; attempt <= 5; attempt++) {
+                long exponential = Math.min(1000L, (long) (100 * Math.pow(2.0, attempt - 1)));
+                long full = jitter(RetrySetting.BackOffPolicy.FULL_JITTER).apply(attempt);
+                assertThat(full, greaterThanOrEqualTo(0L));
+                assertThat(full, lessThanOrEqualTo(exponential));
+
+                long equal = jitter(RetrySetting.BackOffPolicy.EQUAL_JITTER).apply(attempt);
+                assertThat(equal, greaterThanOrEqualTo(exponential / 2));
+                assertThat(equal, lessThanOrEqualTo(exponential));
+
+                long decorrelated = jitter(RetrySetting.BackOffPolicy.DECORRELATED_JITTER).apply(attempt);
+                assertThat(decorrelated, greaterThanOrEqualTo(100L));
+                assertThat(decorrelated, lessThanOrEqualTo(Math.min(1000L, (long) (100 * Math.pow(3.0, attempt)))));
+            }
+        }
+    }
+
+    @Test
+    void shouldNotOverflowUncappedBackOff() {
+        for (RetrySetting.BackOffPolicy policy : RetrySetting.BackOffPolicy.values()) {
+            IntervalFunction intervalFunction = RetrySetting.builder()
+                    .backOffPolicy(policy)
+                    .initialBackOffMillis(100)
+                    .multiplier(2.0)
+                    .build()
+                    .getIntervalFunction();
+            for (int attempt = 1; attempt <= 200; attempt++) {
+                assertThat(policy.name(), intervalFunction.apply(attempt), greaterThanOrEqualTo(0L));
+            }
+        }
+    }
+
+    /**
+     * Simulates clients that all fail at the same time and retry three times,
+     * and counts retries arriving in the busiest 10ms window.
+     */
+    @Test
+    void shouldSpreadSynchronizedRetries() {
+        int clients = 1000;
+        int exponentialPeak = peakRetries(jitter(RetrySetting.BackOffPolicy.EXPONENTIAL), clients);
+        assertThat(exponentialPeak, equalTo(clients));
+
+        for (RetrySetting.BackOffPolicy policy : new RetrySetting.BackOffPolicy[] {
+                RetrySetting.BackOffPolicy.FULL_JITTER,
+                RetrySetting.BackOffPolicy.EQUAL_JITTER,
+                RetrySetting.BackOffPolicy.DECORRELATED_JITTER,
+        }) {
+            int peak = peakRetries(jitter(policy), clients);
+            assertThat(policy.name(), peak, lessThan(clients / 3));
+            assertThat(policy.name(), peak, greaterThan(0));
+        }
+    }
+
+    private static IntervalFunction jitter(RetrySetting.BackOffPolicy policy) {
+        return RetrySetting.builder()
+                .backOffPolicy(policy)
+                .initialBackOffMillis(100)
+                .multiplier(2.0)
+                .maxBackOffMillis(1000)
+                .build()
+                .getIntervalFunction();
+    }
+
+    private static int peakRetries(IntervalFunction intervalFunction, int clients) {
+        Map<Long, Integer> retriesPerWindow = new HashMap<>();
+        for (int client = 0; client < clients; client++) {
+            long time = 0;
+            for (int attempt = 1; attempt <= 3; attempt++) {
+                time += intervalFunction.apply(attempt);
+                retriesPerWindow.merge(time / 10, 1, Integer::sum);
+            }
+        }
+        return retriesPerWindow.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
 }